@@ -0,0 +1,94 @@
+package com.bookstore.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares a JMH JSON result file against a stored baseline.
+ *
+ * Benchmarks are matched by name and parameters. Every benchmark here runs
+ * in average-time mode, so a score more than {@code tolerance} above the
+ * baseline is a regression and fails the build. With {@code update} the
+ * results replace the baseline instead.
+ *
+ * Usage: BaselineCheck results.json baseline.json tolerance update
+ */
+public final class BaselineCheck {
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        Path results = Paths.get(args[0]);
+        Path baseline = Paths.get(args[1]);
+        double tolerance = Double.parseDouble(args[2]);
+        boolean update = Boolean.parseBoolean(args[3]);
+
+        if (update) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Benchmark baseline updated: " + baseline);
+            return;
+        }
+
+        if (!Files.exists(baseline)) {
+            System.out.println("No benchmark baseline at " + baseline
+                    + "; run with -Dbenchmark.update-baseline=true to record one");
+            return;
+        }
+
+        Map<String, Double> current = scores(results);
+        Map<String, Double> expected = scores(baseline);
+        int regressions = 0;
+
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            Double before = expected.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("  new        %-70s %12.3f%n", entry.getKey(), entry.getValue());
+                continue;
+            }
+
+            double change = (entry.getValue() - before) / before;
+            boolean regressed = change > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("  %-10s %-70s %12.3f -> %12.3f (%+.1f%%)%n",
+                    regressed ? "REGRESSED" : "ok", entry.getKey(), before, entry.getValue(), change * 100);
+        }
+
+        if (regressions > 0) {
+            throw new IllegalStateException(regressions + " benchmark(s) slower than the baseline by more than "
+                    + Math.round(tolerance * 100) + "%");
+        }
+    }
+
+    private static Map<String, Double> scores(Path file) throws IOException {
+
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+            scores.put(key.toString(), run.get("primaryMetric").get("score").asDouble());
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookstore.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderItem;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static Order order(int items) {
+
+        Order order = new Order();
+        order.setId(1L);
+        order.setUserEmail("reader@bookstore.com");
+        order.setOrderDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+        order.setPaymentStatus(PaymentStatus.PAID);
+        order.setOrderStatus(OrderStatus.PLACED);
+
+        List<OrderItem> orderItems = new ArrayList<>(items);
+        double total = 0;
+        for (long i = 1; i <= items; i++) {
+            orderItems.add(new OrderItem(i, i, 2, 9.99, order));
+            total += 2 * 9.99;
+        }
+        order.setOrderItems(orderItems);
+        order.setTotalAmount(total);
+        return order;
+    }
+}
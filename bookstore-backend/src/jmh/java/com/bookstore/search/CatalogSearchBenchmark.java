@@ -0,0 +1,120 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bookstore.search.CatalogSearchIndex.Field;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The in-memory index against the LIKE '%term%' scans the repository
+ * queries turn into, over the same generated catalog (1M books by default,
+ * -p books=... to change). The scans run on an in-memory H2 table, so they
+ * are a lower bound for a networked MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogSearchBenchmark {
+
+    private static final String[] GENRES = {"Fantasy", "Science Fiction", "Mystery", "Romance", "Horror",
+            "History", "Biography", "Poetry", "Travel", "Cooking"};
+
+    @Param({"1000000"})
+    public int books;
+
+    private CatalogSearchIndex index;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private String titleTerm;
+    private String authorTerm;
+
+    @Setup
+    public void setUp() {
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:catalog_search;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE book (id BIGINT PRIMARY KEY, title VARCHAR(255), "
+                + "author VARCHAR(255), genre VARCHAR(255))");
+
+        index = new CatalogSearchIndex();
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(10_000);
+
+        for (long id = 1; id <= books; id++) {
+            String title = word(random) + " " + word(random) + " " + word(random);
+            String author = word(random) + " " + word(random);
+            String genre = GENRES[random.nextInt(GENRES.length)];
+
+            index.index(id, title, author, genre);
+            batch.add(new Object[]{id, title, author, genre});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate("INSERT INTO book (id, title, author, genre) VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO book (id, title, author, genre) VALUES (?, ?, ?, ?)", batch);
+        }
+
+        Random terms = new Random(7);
+        titleTerm = word(terms).substring(0, 4);
+        authorTerm = word(terms).substring(1, 5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public SearchResult indexTitle() {
+        return index.searchField(Field.TITLE, titleTerm, 0, 20);
+    }
+
+    @Benchmark
+    public List<Long> repositoryTitle() {
+        return jdbcTemplate.queryForList("SELECT id FROM book WHERE LOWER(title) LIKE ?", Long.class,
+                "%" + titleTerm + "%");
+    }
+
+    @Benchmark
+    public SearchResult indexAuthor() {
+        return index.searchField(Field.AUTHOR, authorTerm, 0, 20);
+    }
+
+    @Benchmark
+    public List<Long> repositoryAuthor() {
+        return jdbcTemplate.queryForList("SELECT id FROM book WHERE LOWER(author) LIKE ?", Long.class,
+                "%" + authorTerm + "%");
+    }
+
+    @Benchmark
+    public SearchResult indexRanked() {
+        return index.search(titleTerm + " " + authorTerm, 0, 20);
+    }
+
+    // Six letters from a 13-letter alphabet: about 4.8M distinct words
+    private static String word(Random random) {
+        char[] letters = new char[6];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = "abdeiklmnorst".charAt(random.nextInt(13));
+        }
+        return new String(letters);
+    }
+}
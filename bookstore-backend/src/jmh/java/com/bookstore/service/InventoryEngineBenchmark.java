@@ -0,0 +1,90 @@
+package com.bookstore.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bookstore.repository.BookStockRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Many buyers of one hot book: a conditional UPDATE per order ("direct",
+ * what the batch path does per line) against InventoryEngine folding them
+ * into net updates ("engine"). Runs on an in-memory H2 book table behind
+ * a Hikari pool.
+ *
+ * Orders/sec is threads / average time per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class InventoryEngineBenchmark {
+
+    @Param({"direct", "engine"})
+    public String mode;
+
+    private HikariDataSource dataSource;
+    private JdbcStock stock;
+    private InventoryEngine engine;
+
+    @Setup
+    public void setUp() {
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:inventory_" + mode + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(10);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE book (id BIGINT PRIMARY KEY, stock INT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO book (id, stock) VALUES (1, ?)", Integer.MAX_VALUE);
+
+        stock = new JdbcStock(jdbcTemplate);
+        engine = new InventoryEngine(stock, 256, 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public ReservationResult reserve() {
+        if ("engine".equals(mode)) {
+            return engine.reserve(1L, 1).join();
+        }
+        return stock.decrementStock(1L, 1) ? ReservationResult.RESERVED : ReservationResult.REJECTED;
+    }
+
+    // The production statements, without the Hibernate region eviction
+    private static final class JdbcStock extends BookStockRepository {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        private JdbcStock(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        public boolean decrementStock(Long bookId, int quantity) {
+            return jdbcTemplate.update("UPDATE book SET stock = stock - ? WHERE id = ? AND stock >= ?",
+                    quantity, bookId, quantity) == 1;
+        }
+
+        @Override
+        public Integer findStock(Long bookId) {
+            return jdbcTemplate.queryForObject("SELECT stock FROM book WHERE id = ?", Integer.class, bookId);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.bookstore.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.bookstore.benchmark.Fixtures;
+import com.bookstore.entity.Order;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvoiceBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int items;
+
+    private InvoiceService invoiceService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        invoiceService = new InvoiceService();
+        order = Fixtures.order(items);
+    }
+
+    @Benchmark
+    public byte[] generateInvoice() {
+        return invoiceService.generateInvoice(order);
+    }
+}
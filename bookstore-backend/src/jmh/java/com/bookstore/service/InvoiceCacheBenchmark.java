@@ -0,0 +1,72 @@
+package com.bookstore.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bookstore.benchmark.Fixtures;
+import com.bookstore.entity.Order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * An invoice download through InvoiceCache: "hit" serves the cached PDF,
+ * "miss" renders it through the capture stream. The client is a stream that
+ * discards what it is given. Run with -prof gc for bytes allocated per
+ * download.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvoiceCacheBenchmark {
+
+    @Param({"10", "100"})
+    public int items;
+
+    private InvoiceService invoiceService;
+    private InvoiceCache cache;
+    private Order order;
+    private OutputStream client;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+
+        invoiceService = new InvoiceService();
+        cache = new InvoiceCache(64 * 1024 * 1024, 1024 * 1024, "", 0, new SimpleMeterRegistry());
+        order = Fixtures.order(items);
+        client = new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(len);
+            }
+        };
+
+        cache.write(order, client, stream -> invoiceService.writeInvoice(order, stream));
+    }
+
+    @Benchmark
+    public void hit() throws IOException {
+        cache.write(order, client, stream -> invoiceService.writeInvoice(order, stream));
+    }
+
+    @Benchmark
+    public void miss() throws IOException {
+        cache.invalidate(order.getId());
+        cache.write(order, client, stream -> invoiceService.writeInvoice(order, stream));
+    }
+}
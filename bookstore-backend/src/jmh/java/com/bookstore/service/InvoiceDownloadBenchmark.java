@@ -0,0 +1,79 @@
+package com.bookstore.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.bookstore.benchmark.Fixtures;
+import com.bookstore.entity.Order;
+
+/**
+ * One uncached invoice download, rendering included: "buffered" is the
+ * original endpoint, which rendered into a ByteArrayOutputStream and
+ * returned toByteArray() as a ResponseEntity<byte[]>; "streamed" renders
+ * straight into the response. The client is a stream that discards what it
+ * is given. Run with -prof gc for bytes allocated per download.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvoiceDownloadBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int items;
+
+    private InvoiceService invoiceService;
+    private Order order;
+    private OutputStream client;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+
+        invoiceService = new InvoiceService();
+        order = Fixtures.order(items);
+        client = new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(len);
+            }
+        };
+    }
+
+    @Benchmark
+    public void buffered() throws IOException {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        invoiceService.writeInvoice(order, baos);
+
+        ResponseEntity<byte[]> response = ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=invoice_" + order.getId() + ".pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(baos.toByteArray());
+
+        // What the byte[] message converter does with the body
+        client.write(response.getBody());
+    }
+
+    @Benchmark
+    public void streamed() {
+        invoiceService.writeInvoice(order, client);
+    }
+}
@@ -0,0 +1,55 @@
+package com.bookstore.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Order;
+
+// The total and line-building loop of OrderService.placeOrder, without the database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderBuildBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private OrderRequest request;
+    private Map<Long, Book> books;
+
+    @Setup
+    public void setUp() {
+
+        request = new OrderRequest();
+        request.setItems(new ArrayList<>());
+        books = new HashMap<>();
+
+        for (long id = 1; id <= lines; id++) {
+            books.put(id, new Book(id, "Book " + id, "Author", "Genre", 9.99, 100));
+
+            OrderItemRequest item = new OrderItemRequest();
+            item.setBookId(id);
+            item.setQuantity(2);
+            request.getItems().add(item);
+        }
+    }
+
+    @Benchmark
+    public Order buildOrder() {
+        return OrderService.buildOrder(request, "reader@bookstore.com", books);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bookstore.analytics;
+
+public class BookSales {
+
+    private final Long bookId;
+    private final long units;
+    private final double revenue;
+    private final long orders;
+
+    public BookSales(Long bookId, long units, long revenueCents, long orders) {
+        this.bookId = bookId;
+        this.units = units;
+        this.revenue = revenueCents / 100.0;
+        this.orders = orders;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bookstore.analytics;
+
+import java.time.LocalDate;
+
+// One day's sales in one genre; orders counts the orders with a line in it
+public class DailySales {
+
+    private final LocalDate day;
+    private final String genre;
+    private final double revenue;
+    private final long units;
+    private final long orders;
+
+    public DailySales(LocalDate day, String genre, long revenueCents, long units, long orders) {
+        this.day = day;
+        this.genre = genre;
+        this.revenue = revenueCents / 100.0;
+        this.units = units;
+        this.orders = orders;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+}
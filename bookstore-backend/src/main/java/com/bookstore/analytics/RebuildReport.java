@@ -0,0 +1,27 @@
+package com.bookstore.analytics;
+
+public class RebuildReport {
+
+    private final int chunks;
+    private final long orders;
+    private final long millis;
+
+    public RebuildReport(int chunks, long orders, long millis) {
+        this.chunks = chunks;
+        this.orders = orders;
+        this.millis = millis;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    // Orders scanned, cancelled ones included
+    public long getOrders() {
+        return orders;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,658 @@
+package com.bookstore.analytics;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.dto.OrderLine;
+import com.bookstore.dto.OrderState;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderItem;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+import com.bookstore.exception.ServiceBusyException;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.service.BookCache;
+
+/**
+ * Sales figures kept up to date as orders change, so reports never scan
+ * the orders table.
+ *
+ * Placing an order, changing its order or payment status and cancelling
+ * it add to in-memory counters: revenue, units and orders per day and
+ * genre, the same per book, and orders per order and payment status.
+ * Counters are {@link LongAdder}s, striped across threads, so concurrent
+ * checkouts do not contend on them. Each keeps its running total, which
+ * the admin endpoints read directly, and the part not yet written, which
+ * {@link #flush} adds to the summary tables. Updates are applied once the
+ * change has committed.
+ *
+ * Totals are loaded from the summary tables at startup. {@link #rebuild}
+ * recomputes everything from orders and order_item, in parallel chunks of
+ * order ids. Cancelled orders count towards the status figures only.
+ */
+@Service
+public class SalesAnalytics {
+
+    static final String UNKNOWN_GENRE = "unknown";
+    private static final int MAX_DAYS = 366;
+    private static final int TOP_BOOKS = 100;
+
+    private static final String UPSERT_DAILY_SQL =
+            "INSERT INTO sales_daily (sales_day, genre, revenue_cents, units, order_count) VALUES (?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE revenue_cents = revenue_cents + VALUES(revenue_cents), "
+                    + "units = units + VALUES(units), order_count = order_count + VALUES(order_count)";
+
+    private static final String UPSERT_BOOK_SQL =
+            "INSERT INTO book_sales (book_id, revenue_cents, units, order_count) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE revenue_cents = revenue_cents + VALUES(revenue_cents), "
+                    + "units = units + VALUES(units), order_count = order_count + VALUES(order_count)";
+
+    private static final String UPSERT_STATUS_SQL =
+            "INSERT INTO order_status_count (dimension, status, order_count) VALUES (?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderRepository orderRepository;
+    private final BookCache bookCache;
+    private final int rebuildThreads;
+    private final int chunkSize;
+
+    private final ConcurrentMap<LocalDate, ConcurrentMap<String, Sales>> daily = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Sales> books = new ConcurrentHashMap<>();
+    private final Map<OrderStatus, Tally> orderStatuses = new EnumMap<>(OrderStatus.class);
+    private final Map<PaymentStatus, Tally> paymentStatuses = new EnumMap<>(PaymentStatus.class);
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Serializes load, flush and replace; a lock rather than synchronized, which pins
+    // virtual threads to their carrier for the length of the JDBC calls
+    private final Lock lock = new ReentrantLock();
+    private volatile List<BookSales> topBooks = List.of();
+
+    public SalesAnalytics(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          OrderRepository orderRepository,
+                          BookCache bookCache,
+                          @Value("${analytics.rebuild.threads:4}") int rebuildThreads,
+                          @Value("${analytics.rebuild.chunk-size:10000}") int chunkSize) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.orderRepository = orderRepository;
+        this.bookCache = bookCache;
+        this.rebuildThreads = rebuildThreads;
+        this.chunkSize = chunkSize;
+
+        for (OrderStatus status : OrderStatus.values()) {
+            orderStatuses.put(status, new Tally());
+        }
+        for (PaymentStatus status : PaymentStatus.values()) {
+            paymentStatuses.put(status, new Tally());
+        }
+    }
+
+    // ================= UPDATES =================
+
+    // books holds the books the order was built from; their genres are used as they are
+    public void orderPlaced(Order order, Map<Long, Book> books) {
+
+        List<OrderLine> lines = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            lines.add(new OrderLine(order.getId(), item.getBookId(), item.getQuantity(), item.getPrice()));
+        }
+
+        afterCommit(() -> {
+            count(order.getOrderStatus(), order.getPaymentStatus(), 1);
+            if (order.getOrderStatus() != OrderStatus.CANCELLED) {
+                addSales(order.getOrderDate().toLocalDate(), lines, books, 1);
+            }
+        });
+    }
+
+    // Call with the order already saved in its new status
+    public void orderStatusChanged(Order order, OrderStatus from) {
+        orderStatusesChanged(List.of(new OrderState(order.getId(), from, order.getPaymentStatus(),
+                order.getOrderDate())), order.getOrderStatus());
+    }
+
+    // Orders moved to the same status, each as it was before the move
+    public void orderStatusesChanged(List<OrderState> before, OrderStatus to) {
+
+        List<OrderState> moved = new ArrayList<>();
+        List<Long> crossing = new ArrayList<>();
+        for (OrderState state : before) {
+            if (state.getOrderStatus() == to) {
+                continue;
+            }
+            moved.add(state);
+            // Sales move only when the order goes into or out of CANCELLED
+            if ((state.getOrderStatus() == OrderStatus.CANCELLED) != (to == OrderStatus.CANCELLED)
+                    && state.getOrderDate() != null) {
+                crossing.add(state.getOrderId());
+            }
+        }
+        if (moved.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<OrderLine>> lines = new HashMap<>();
+        Set<Long> bookIds = new LinkedHashSet<>();
+        if (!crossing.isEmpty()) {
+            for (OrderLine line : orderRepository.findLinesByOrderIds(crossing)) {
+                lines.computeIfAbsent(line.getOrderId(), id -> new ArrayList<>()).add(line);
+                bookIds.add(line.getBookId());
+            }
+        }
+        Map<Long, Book> catalog = bookIds.isEmpty() ? Map.of() : bookCache.getAll(bookIds);
+        long sign = to == OrderStatus.CANCELLED ? -1 : 1;
+
+        afterCommit(() -> {
+            for (OrderState state : moved) {
+                count(state.getOrderStatus(), null, -1);
+                count(to, null, 1);
+                List<OrderLine> orderLines = lines.get(state.getOrderId());
+                if (orderLines != null) {
+                    addSales(state.getOrderDate().toLocalDate(), orderLines, catalog, sign);
+                }
+            }
+        });
+    }
+
+    public void paymentStatusChanged(PaymentStatus from, PaymentStatus to) {
+        if (from != to) {
+            afterCommit(() -> {
+                count(null, from, -1);
+                count(null, to, 1);
+            });
+        }
+    }
+
+    public void paymentStatusesChanged(List<OrderState> before, PaymentStatus to) {
+        afterCommit(() -> before.forEach(state -> {
+            if (state.getPaymentStatus() != to) {
+                count(null, state.getPaymentStatus(), -1);
+                count(null, to, 1);
+            }
+        }));
+    }
+
+    private void count(OrderStatus orderStatus, PaymentStatus paymentStatus, long delta) {
+        if (orderStatus != null) {
+            orderStatuses.get(orderStatus).add(delta);
+        }
+        if (paymentStatus != null) {
+            paymentStatuses.get(paymentStatus).add(delta);
+        }
+    }
+
+    private void addSales(LocalDate day, List<OrderLine> lines, Map<Long, Book> catalog, long sign) {
+
+        Map<String, Sales> genres = daily.computeIfAbsent(day, d -> new ConcurrentHashMap<>());
+        Set<String> genresSeen = new LinkedHashSet<>();
+        Set<Long> booksSeen = new LinkedHashSet<>();
+
+        for (OrderLine line : lines) {
+
+            long cents = sign * Math.round(line.getPrice() * line.getQuantity() * 100);
+            long units = sign * line.getQuantity();
+            String genre = genreOf(catalog.get(line.getBookId()));
+
+            genres.computeIfAbsent(genre, g -> new Sales())
+                    .add(cents, units, genresSeen.add(genre) ? sign : 0);
+            books.computeIfAbsent(line.getBookId(), id -> new Sales())
+                    .add(cents, units, booksSeen.add(line.getBookId()) ? sign : 0);
+        }
+    }
+
+    // ================= READS =================
+
+    /**
+     * Sales per day and genre between two dates, both included. Reads only
+     * the counters of the days asked for.
+     */
+    public List<DailySales> dailySales(LocalDate from, LocalDate to) {
+
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new IllegalArgumentException("'from' must not be after 'to', and at most " + MAX_DAYS + " days apart");
+        }
+
+        List<DailySales> result = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Map<String, Sales> genres = daily.get(day);
+            if (genres == null) {
+                continue;
+            }
+            LocalDate current = day;
+            genres.forEach((genre, sales) -> {
+                if (sales.units.total.sum() != 0 || sales.orders.total.sum() != 0) {
+                    result.add(new DailySales(current, genre, sales.revenueCents.total.sum(),
+                            sales.units.total.sum(), sales.orders.total.sum()));
+                }
+            });
+        }
+        result.sort(Comparator.comparing(DailySales::getDay).thenComparing(DailySales::getGenre));
+        return result;
+    }
+
+    // Best sellers by units, as of the last flush
+    public List<BookSales> topBooks(int limit) {
+
+        if (limit < 1 || limit > TOP_BOOKS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + TOP_BOOKS);
+        }
+        List<BookSales> top = topBooks;
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    public StatusCounts statusCounts() {
+
+        Map<OrderStatus, Long> byOrderStatus = new EnumMap<>(OrderStatus.class);
+        orderStatuses.forEach((status, tally) -> byOrderStatus.put(status, tally.total.sum()));
+
+        Map<PaymentStatus, Long> byPaymentStatus = new EnumMap<>(PaymentStatus.class);
+        paymentStatuses.forEach((status, tally) -> byPaymentStatus.put(status, tally.total.sum()));
+
+        return new StatusCounts(byOrderStatus, byPaymentStatus);
+    }
+
+    // ================= PERSISTENCE =================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+
+        lock.lock();
+        try {
+            jdbcTemplate.query("SELECT sales_day, genre, revenue_cents, units, order_count FROM sales_daily", rs -> {
+                daily.computeIfAbsent(rs.getDate(1).toLocalDate(), d -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(rs.getString(2), g -> new Sales())
+                        .addTotal(rs.getLong(3), rs.getLong(4), rs.getLong(5));
+            });
+            jdbcTemplate.query("SELECT book_id, revenue_cents, units, order_count FROM book_sales", rs -> {
+                books.computeIfAbsent(rs.getLong(1), id -> new Sales())
+                        .addTotal(rs.getLong(2), rs.getLong(3), rs.getLong(4));
+            });
+            jdbcTemplate.query("SELECT dimension, status, order_count FROM order_status_count", rs -> {
+                Tally tally = statusTally(rs.getString(1), rs.getString(2));
+                if (tally != null) {
+                    tally.total.add(rs.getLong(3));
+                }
+            });
+
+            refreshTopBooks();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds everything counted since the last flush to the summary tables in
+     * one transaction. If the write fails the counts are kept for the next
+     * flush.
+     */
+    @Scheduled(fixedDelayString = "${analytics.flush-interval:PT10S}",
+            initialDelayString = "${analytics.flush-interval:PT10S}")
+    public void flush() {
+
+        lock.lock();
+        try {
+            List<Object[]> dailyRows = new ArrayList<>();
+            List<Object[]> bookRows = new ArrayList<>();
+            List<Object[]> statusRows = new ArrayList<>();
+            List<Runnable> undo = new ArrayList<>();
+
+            daily.forEach((day, genres) -> genres.forEach((genre, sales) -> {
+                long[] taken = sales.takePending();
+                if (taken != null) {
+                    dailyRows.add(new Object[]{Date.valueOf(day), genre, taken[0], taken[1], taken[2]});
+                    undo.add(() -> sales.restore(taken));
+                }
+            }));
+            books.forEach((bookId, sales) -> {
+                long[] taken = sales.takePending();
+                if (taken != null) {
+                    bookRows.add(new Object[]{bookId, taken[0], taken[1], taken[2]});
+                    undo.add(() -> sales.restore(taken));
+                }
+            });
+            orderStatuses.forEach((status, tally) -> takeStatus("ORDER", status.name(), tally, statusRows, undo));
+            paymentStatuses.forEach((status, tally) -> takeStatus("PAYMENT", status.name(), tally, statusRows, undo));
+
+            if (undo.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, dailyRows);
+                    jdbcTemplate.batchUpdate(UPSERT_BOOK_SQL, bookRows);
+                    jdbcTemplate.batchUpdate(UPSERT_STATUS_SQL, statusRows);
+                });
+            } catch (RuntimeException e) {
+                undo.forEach(Runnable::run);
+                throw e;
+            }
+
+            if (!bookRows.isEmpty()) {
+                refreshTopBooks();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ================= REBUILD =================
+
+    /**
+     * Recomputes every figure from the orders and order_item tables, split
+     * into chunks of {@code analytics.rebuild.chunk-size} order ids that are
+     * aggregated in parallel, then replaces the summary tables and the
+     * in-memory totals.
+     *
+     * Best run when orders are quiet: a change that lands while the chunks
+     * are being read may be counted twice or not at all. Running it again
+     * fixes that.
+     */
+    public RebuildReport rebuild() {
+
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new ServiceBusyException("An analytics rebuild is already running", 10);
+        }
+
+        try {
+            long start = System.nanoTime();
+            flush();
+
+            Map<String, Object> range = jdbcTemplate.queryForMap(
+                    "SELECT MIN(id) AS min_id, MAX(id) AS max_id, COUNT(*) AS total FROM orders");
+            long total = ((Number) range.get("total")).longValue();
+
+            List<long[]> chunks = new ArrayList<>();
+            if (total > 0) {
+                long minId = ((Number) range.get("min_id")).longValue();
+                long maxId = ((Number) range.get("max_id")).longValue();
+                for (long first = minId; first <= maxId; first += chunkSize) {
+                    chunks.add(new long[]{first, Math.min(maxId, first + chunkSize - 1)});
+                }
+            }
+
+            Totals totals = new Totals();
+            AtomicInteger counter = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads, runnable -> {
+                Thread thread = new Thread(runnable, "analytics-rebuild-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<CompletableFuture<Totals>> parts = new ArrayList<>();
+                for (long[] chunk : chunks) {
+                    parts.add(CompletableFuture.supplyAsync(() -> scan(chunk[0], chunk[1]), pool));
+                }
+                parts.forEach(part -> totals.merge(part.join()));
+            } finally {
+                pool.shutdown();
+            }
+
+            replace(totals);
+            return new RebuildReport(chunks.size(), total, (System.nanoTime() - start) / 1_000_000);
+
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private Totals scan(long firstId, long lastId) {
+
+        Totals totals = new Totals();
+
+        jdbcTemplate.query("SELECT CAST(o.order_date AS DATE) AS sales_day, b.genre, "
+                + "SUM(ROUND(i.price * i.quantity * 100)), SUM(i.quantity), COUNT(DISTINCT o.id) "
+                + "FROM orders o JOIN order_item i ON i.order_id = o.id LEFT JOIN book b ON b.id = i.book_id "
+                + "WHERE o.id BETWEEN ? AND ? AND o.order_status <> 'CANCELLED' "
+                + "GROUP BY CAST(o.order_date AS DATE), b.genre", rs -> {
+            totals.daily.computeIfAbsent(rs.getDate(1).toLocalDate(), d -> new HashMap<>())
+                    .merge(genreOf(rs.getString(2)), new long[]{rs.getLong(3), rs.getLong(4), rs.getLong(5)},
+                            Totals::sum);
+        }, firstId, lastId);
+
+        jdbcTemplate.query("SELECT i.book_id, SUM(ROUND(i.price * i.quantity * 100)), SUM(i.quantity), "
+                + "COUNT(DISTINCT o.id) "
+                + "FROM orders o JOIN order_item i ON i.order_id = o.id "
+                + "WHERE o.id BETWEEN ? AND ? AND o.order_status <> 'CANCELLED' "
+                + "GROUP BY i.book_id", rs -> {
+            totals.books.merge(rs.getLong(1), new long[]{rs.getLong(2), rs.getLong(3), rs.getLong(4)},
+                    Totals::sum);
+        }, firstId, lastId);
+
+        jdbcTemplate.query("SELECT order_status, payment_status, COUNT(*) FROM orders "
+                + "WHERE id BETWEEN ? AND ? GROUP BY order_status, payment_status", rs -> {
+            if (rs.getString(1) != null) {
+                totals.statuses.merge("ORDER\n" + rs.getString(1), rs.getLong(3), Long::sum);
+            }
+            if (rs.getString(2) != null) {
+                totals.statuses.merge("PAYMENT\n" + rs.getString(2), rs.getLong(3), Long::sum);
+            }
+        }, firstId, lastId);
+
+        return totals;
+    }
+
+    // Not-yet-flushed counts stay pending and are added on top of the rebuilt totals
+    private void replace(Totals totals) {
+
+        lock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM sales_daily");
+                jdbcTemplate.update("DELETE FROM book_sales");
+                jdbcTemplate.update("DELETE FROM order_status_count");
+
+                List<Object[]> dailyRows = new ArrayList<>();
+                totals.daily.forEach((day, genres) -> genres.forEach((genre, v) ->
+                        dailyRows.add(new Object[]{Date.valueOf(day), genre, v[0], v[1], v[2]})));
+                List<Object[]> bookRows = new ArrayList<>();
+                totals.books.forEach((bookId, v) -> bookRows.add(new Object[]{bookId, v[0], v[1], v[2]}));
+                List<Object[]> statusRows = new ArrayList<>();
+                totals.statuses.forEach((key, count) -> {
+                    String[] parts = key.split("\n");
+                    statusRows.add(new Object[]{parts[0], parts[1], count});
+                });
+
+                jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, dailyRows);
+                jdbcTemplate.batchUpdate(UPSERT_BOOK_SQL, bookRows);
+                jdbcTemplate.batchUpdate(UPSERT_STATUS_SQL, statusRows);
+            });
+
+            totals.daily.forEach((day, genres) -> genres.forEach((genre, v) ->
+                    daily.computeIfAbsent(day, d -> new ConcurrentHashMap<>()).computeIfAbsent(genre, g -> new Sales())));
+            totals.books.forEach((bookId, v) -> books.computeIfAbsent(bookId, id -> new Sales()));
+
+            daily.forEach((day, genres) -> genres.forEach((genre, sales) ->
+                    sales.resetTotal(totals.daily.getOrDefault(day, Map.of()).get(genre))));
+            books.forEach((bookId, sales) -> sales.resetTotal(totals.books.get(bookId)));
+            orderStatuses.forEach((status, tally) ->
+                    tally.resetTotal(totals.statuses.getOrDefault("ORDER\n" + status.name(), 0L)));
+            paymentStatuses.forEach((status, tally) ->
+                    tally.resetTotal(totals.statuses.getOrDefault("PAYMENT\n" + status.name(), 0L)));
+
+            refreshTopBooks();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private void refreshTopBooks() {
+
+        Comparator<BookSales> order = Comparator.comparingLong(BookSales::getUnits)
+                .thenComparingDouble(BookSales::getRevenue);
+        PriorityQueue<BookSales> heap = new PriorityQueue<>(order);
+
+        books.forEach((bookId, sales) -> {
+            long units = sales.units.total.sum();
+            if (units <= 0) {
+                return;
+            }
+            heap.add(new BookSales(bookId, units, sales.revenueCents.total.sum(), sales.orders.total.sum()));
+            if (heap.size() > TOP_BOOKS) {
+                heap.poll();
+            }
+        });
+
+        List<BookSales> top = new ArrayList<>(heap);
+        top.sort(order.reversed());
+        topBooks = List.copyOf(top);
+    }
+
+    private Tally statusTally(String dimension, String status) {
+        try {
+            return switch (dimension) {
+                case "ORDER" -> orderStatuses.get(OrderStatus.valueOf(status));
+                case "PAYMENT" -> paymentStatuses.get(PaymentStatus.valueOf(status));
+                default -> null;
+            };
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void takeStatus(String dimension, String status, Tally tally,
+                                   List<Object[]> rows, List<Runnable> undo) {
+        long taken = tally.pending.sumThenReset();
+        if (taken != 0) {
+            rows.add(new Object[]{dimension, status, taken});
+            undo.add(() -> tally.pending.add(taken));
+        }
+    }
+
+    private static String genreOf(Book book) {
+        return book == null ? UNKNOWN_GENRE : genreOf(book.getGenre());
+    }
+
+    private static String genreOf(String genre) {
+        return genre == null || genre.isBlank() ? UNKNOWN_GENRE : genre;
+    }
+
+    // Inside a transaction, waits for it to commit; rolled-back changes are never counted
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    // A running total and the part of it not yet flushed
+    private static final class Tally {
+
+        private final LongAdder total = new LongAdder();
+        private final LongAdder pending = new LongAdder();
+
+        private void add(long delta) {
+            total.add(delta);
+            pending.add(delta);
+        }
+
+        private void resetTotal(long value) {
+            total.reset();
+            total.add(value + pending.sum());
+        }
+    }
+
+    private static final class Sales {
+
+        private final Tally revenueCents = new Tally();
+        private final Tally units = new Tally();
+        private final Tally orders = new Tally();
+
+        private void add(long cents, long unitCount, long orderCount) {
+            revenueCents.add(cents);
+            units.add(unitCount);
+            if (orderCount != 0) {
+                orders.add(orderCount);
+            }
+        }
+
+        private void addTotal(long cents, long unitCount, long orderCount) {
+            revenueCents.total.add(cents);
+            units.total.add(unitCount);
+            orders.total.add(orderCount);
+        }
+
+        // Null when nothing changed since the last flush
+        private long[] takePending() {
+            long[] taken = {revenueCents.pending.sumThenReset(), units.pending.sumThenReset(),
+                    orders.pending.sumThenReset()};
+            if (taken[0] == 0 && taken[1] == 0 && taken[2] == 0) {
+                return null;
+            }
+            return taken;
+        }
+
+        private void restore(long[] taken) {
+            revenueCents.pending.add(taken[0]);
+            units.pending.add(taken[1]);
+            orders.pending.add(taken[2]);
+        }
+
+        private void resetTotal(long[] values) {
+            revenueCents.resetTotal(values == null ? 0 : values[0]);
+            units.resetTotal(values == null ? 0 : values[1]);
+            orders.resetTotal(values == null ? 0 : values[2]);
+        }
+    }
+
+    // Figures read back from the raw tables by a rebuild
+    private static final class Totals {
+
+        private final Map<LocalDate, Map<String, long[]>> daily = new HashMap<>();
+        private final Map<Long, long[]> books = new HashMap<>();
+        private final Map<String, Long> statuses = new HashMap<>();
+
+        private void merge(Totals other) {
+            other.daily.forEach((day, genres) -> genres.forEach((genre, v) ->
+                    daily.computeIfAbsent(day, d -> new HashMap<>()).merge(genre, v, Totals::sum)));
+            other.books.forEach((bookId, v) -> books.merge(bookId, v, Totals::sum));
+            other.statuses.forEach((key, count) -> statuses.merge(key, count, Long::sum));
+        }
+
+        private static long[] sum(long[] a, long[] b) {
+            return new long[]{a[0] + b[0], a[1] + b[1], a[2] + b[2]};
+        }
+    }
+}
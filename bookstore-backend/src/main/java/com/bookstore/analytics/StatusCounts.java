@@ -0,0 +1,26 @@
+package com.bookstore.analytics;
+
+import java.util.Map;
+
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+
+// Number of orders in each order status and in each payment status
+public class StatusCounts {
+
+    private final Map<OrderStatus, Long> orderStatus;
+    private final Map<PaymentStatus, Long> paymentStatus;
+
+    public StatusCounts(Map<OrderStatus, Long> orderStatus, Map<PaymentStatus, Long> paymentStatus) {
+        this.orderStatus = orderStatus;
+        this.paymentStatus = paymentStatus;
+    }
+
+    public Map<OrderStatus, Long> getOrderStatus() {
+        return orderStatus;
+    }
+
+    public Map<PaymentStatus, Long> getPaymentStatus() {
+        return paymentStatus;
+    }
+}
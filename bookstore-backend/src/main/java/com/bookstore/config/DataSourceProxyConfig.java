@@ -0,0 +1,38 @@
+package com.bookstore.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bookstore.sql.SqlStatementCounter;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps every data source with datasource-proxy so statements can be counted
+ * per request and slow ones logged, see {@link SqlStatementCounter}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceProxyConfig {
+
+    // Static, and the counter is looked up lazily, so the post-processor does
+    // not pull the meter registry in before it is fully configured
+    @Bean
+    public static BeanPostProcessor statementCountingDataSource(ObjectProvider<SqlStatementCounter> counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(counter.getObject())
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.bookstore.config;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+
+/**
+ * Cardinality limits for the application's own meters. HTTP URI tags are
+ * capped by {@code management.metrics.web.server.max-uri-tags}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Insufficient-stock rejections are tagged by book. The first
+     * {@code metrics.max-book-tags} books get their own series; rejections of
+     * any other book are counted under {@code book=other}.
+     */
+    @Bean
+    public MeterFilter rejectedBookTagLimit(@Value("${metrics.max-book-tags:100}") int maxBooks) {
+        return limitTagValues("order.stock.rejected", "book", maxBooks);
+    }
+
+    static MeterFilter limitTagValues(String meterName, String tagKey, int maxValues) {
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+
+                String value = id.getTag(tagKey);
+                if (!id.getName().equals(meterName) || value == null || seen.contains(value)) {
+                    return id;
+                }
+                if (seen.size() < maxValues && seen.add(value)) {
+                    return id;
+                }
+                return id.replaceTags(Tags.of(id.getTags()).and(tagKey, "other"));
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstore.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.bookstore.analytics.BookSales;
+import com.bookstore.analytics.DailySales;
+import com.bookstore.analytics.RebuildReport;
+import com.bookstore.analytics.SalesAnalytics;
+import com.bookstore.analytics.StatusCounts;
+
+// Sales reports served from SalesAnalytics counters; nothing here scans orders
+@RestController
+@RequestMapping("/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    // ================= REVENUE BY DAY AND GENRE =================
+    @GetMapping("/revenue")
+    public ResponseEntity<List<DailySales>> revenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return ResponseEntity.ok(salesAnalytics.dailySales(from, to));
+    }
+
+    // ================= TOP-SELLING BOOKS =================
+    @GetMapping("/top-books")
+    public ResponseEntity<List<BookSales>> topBooks(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(salesAnalytics.topBooks(limit));
+    }
+
+    // ================= ORDERS BY STATUS =================
+    @GetMapping("/orders")
+    public ResponseEntity<StatusCounts> statusCounts() {
+        return ResponseEntity.ok(salesAnalytics.statusCounts());
+    }
+
+    // ================= REBUILD FROM ORDERS =================
+    @PostMapping("/rebuild")
+    public ResponseEntity<RebuildReport> rebuild() {
+        return ResponseEntity.ok(salesAnalytics.rebuild());
+    }
+}
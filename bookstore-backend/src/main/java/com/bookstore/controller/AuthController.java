@@ -1,16 +1,31 @@
 package com.bookstore.controller;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import com.bookstore.dto.AuthResponse;
+import com.bookstore.dto.RefreshRequest;
+import com.bookstore.dto.RevokeRequest;
 import com.bookstore.entity.User;
 import com.bookstore.repository.UserRepository;
-import com.bookstore.security.CustomUserDetailsService;
 import com.bookstore.security.JwtUtil;
+import com.bookstore.security.PasswordHashExecutor;
+import com.bookstore.security.RefreshTokenService;
+import com.bookstore.security.TokenDenylist;
+import com.bookstore.security.UserDetailsCache;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 
 @RestController
 @RequestMapping("/auth")
@@ -20,7 +35,7 @@ public class AuthController {
     private AuthenticationManager authenticationManager;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private UserDetailsCache userDetailsCache;
 
     @Autowired
     private JwtUtil jwtUtil;
@@ -31,43 +46,108 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     // ================= REGISTER =================
     @PostMapping("/register")
-    public ResponseEntity<String> register(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<String>> register(@RequestBody User user) {
 
         // check if user already exists
         if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            return ResponseEntity.badRequest()
-                    .body("Email already registered");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("Email already registered"));
         }
 
-        // encrypt password
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-
-        // save user
-        userRepository.save(user);
-
-        return ResponseEntity.ok("User registered successfully");
+        // encrypt password (BCrypt runs on its own pool) and save user
+        return passwordHashExecutor.submit(() -> {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            userRepository.save(user);
+            return ResponseEntity.ok("User registered successfully");
+        });
     }
 
     // ================= LOGIN =================
+    // The BCrypt check runs on the password pool; the request thread is released meanwhile
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody User user) {
-
-        // authenticate user
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        user.getEmail(),
-                        user.getPassword()
-                )
-        );
-        
-
-        // generate JWT token
-        String token = jwtUtil.generateToken(
-                userDetailsService.loadUserByUsername(user.getEmail())
-        );
-
-        return ResponseEntity.ok(token);
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody User user) {
+
+        return passwordHashExecutor.submit(() -> {
+
+            // authenticate user
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            user.getEmail(),
+                            user.getPassword()
+                    )
+            );
+
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            return ResponseEntity.ok(tokens(userDetails, refreshTokenService.issue(userDetails.getUsername())));
+        });
+    }
+
+    // ================= REFRESH =================
+    // Exchanges a refresh token for a new pair; no password check
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest request) {
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        UserDetails userDetails = userDetailsCache.get(rotation.getUserEmail());
+
+        return ResponseEntity.ok(tokens(userDetails, rotation.getToken()));
+    }
+
+    // ================= LOGOUT =================
+    // Revokes the access token it is called with and, if given, the refresh
+    // token with every token rotated from the same login
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshRequest request,
+                                       @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            revokeAccessToken(authHeader.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // ================= REVOKE (ADMIN) =================
+    // Revokes any access token before its expiry, e.g. one reported as leaked
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(@RequestBody RevokeRequest request) {
+
+        if (request.getToken() == null || request.getToken().isBlank()) {
+            throw new IllegalArgumentException("Token is required");
+        }
+        revokeAccessToken(request.getToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    private void revokeAccessToken(String token) {
+
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (ExpiredJwtException e) {
+            // already unusable
+            return;
+        } catch (JwtException e) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        tokenDenylist.revoke(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant());
+    }
+
+    private AuthResponse tokens(UserDetails userDetails, String refreshToken) {
+        return new AuthResponse(jwtUtil.generateToken(userDetails), refreshToken, jwtUtil.getAccessTtlSeconds());
     }
 }
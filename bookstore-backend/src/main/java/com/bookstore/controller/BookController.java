@@ -1,15 +1,29 @@
 package com.bookstore.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.bookstore.dto.BookCursor;
+import com.bookstore.dto.CursorPage;
+import com.bookstore.dto.ImportReport;
 import com.bookstore.entity.Book;
 import com.bookstore.repository.BookRepository;
 import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.search.CatalogSearchService;
+import com.bookstore.service.BookCache;
+import com.bookstore.service.BookImportService;
+import com.bookstore.service.CatalogVersions;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -19,20 +33,71 @@ public class BookController {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Value("${catalog.http.max-age:0s}")
+    private Duration maxAge;
+
     // ================= CREATE (ADMIN ONLY) =================
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     public ResponseEntity<Book> addBook(@RequestBody Book book) {
-        return ResponseEntity.ok(bookRepository.save(book));
+        Book saved = bookRepository.save(book);
+        catalogSearchService.bookSaved(saved);
+        bookCache.evict(saved.getId());
+        return ResponseEntity.ok(saved);
+    }
+
+    // ================= BULK IMPORT (ADMIN ONLY) =================
+    // Streams a CSV (with a header row) or NDJSON body. Rows with an id update that book
+    // (an unknown id is reported as an error); rows without one are always inserted, so
+    // re-sending a file without ids duplicates its books
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importBooks(
+            @RequestHeader("Content-Type") MediaType contentType,
+            InputStream body) throws IOException {
+
+        BookImportService.Format format = contentType.isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? BookImportService.Format.CSV
+                : BookImportService.Format.NDJSON;
+
+        return ResponseEntity.ok(bookImportService.importBooks(body, format));
     }
 
     // ================= READ ALL WITH PAGINATION + SORT =================
+    // Offset mode (default) returns a Page; keyset mode ("after" cursor or
+    // mode=keyset) seeks past the last row instead of counting and skipping.
+    // Tagged with the catalog version, so unchanged polls get a bodiless 304.
     @GetMapping
-    public ResponseEntity<Page<Book>> getAllBooks(
+    public ResponseEntity<?> getAllBooks(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction) {
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "offset") String mode,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        String etag = catalogVersions.catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        if (after != null || mode.equalsIgnoreCase("keyset")) {
+            return cacheable(etag).body(getBooksAfter(after, size, sortBy, direction, withTotal));
+        }
 
         Sort sort = direction.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
@@ -42,36 +107,117 @@ public class BookController {
 
         Page<Book> books = bookRepository.findAll(pageable);
 
-        return ResponseEntity.ok(books);
+        return cacheable(etag).body(books);
+    }
+
+    private CursorPage<Book> getBooksAfter(String after, int size, String sortBy,
+                                           String direction, boolean withTotal) {
+
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("size must be between 1 and 100");
+        }
+
+        // The cursor carries the ordering it was issued for
+        BookCursor cursor = after != null
+                ? BookCursor.decode(after)
+                : new BookCursor(sortBy, direction.equalsIgnoreCase("desc"), null, null);
+
+        if (!BookCursor.SORT_FIELDS.contains(cursor.getSortBy())) {
+            throw new IllegalArgumentException("Cannot sort by: " + cursor.getSortBy());
+        }
+
+        // One extra row tells us whether another page exists
+        List<Book> books = bookRepository.findPageAfter(cursor.getSortBy(), cursor.isDescending(),
+                cursor.getLastValue(), cursor.getLastId(), size + 1);
+
+        String nextCursor = null;
+        if (books.size() > size) {
+            books = books.subList(0, size);
+            nextCursor = BookCursor.after(books.get(size - 1),
+                    cursor.getSortBy(), cursor.isDescending()).encode();
+        }
+
+        Long total = withTotal ? bookRepository.count() : null;
+
+        return new CursorPage<>(books, nextCursor, total);
+    }
+
+    // ================= SEARCH (RANKED, ALL FIELDS) =================
+    @GetMapping("/search")
+    public ResponseEntity<Page<Book>> search(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        String etag = catalogVersions.catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return cacheable(etag).body(catalogSearchService.search(q, page, size));
     }
 
     // ================= SEARCH BY TITLE =================
     @GetMapping("/search/title")
-    public ResponseEntity<List<Book>> searchByTitle(@RequestParam String title) {
-        return ResponseEntity.ok(bookRepository.findByTitleContainingIgnoreCase(title));
+    public ResponseEntity<List<Book>> searchByTitle(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestParam String title,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        String etag = catalogVersions.catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return cacheable(etag).body(catalogSearchService.searchByTitle(title, page, size));
     }
 
     // ================= SEARCH BY AUTHOR =================
     @GetMapping("/search/author")
-    public ResponseEntity<List<Book>> searchByAuthor(@RequestParam String author) {
-        return ResponseEntity.ok(bookRepository.findByAuthorContainingIgnoreCase(author));
+    public ResponseEntity<List<Book>> searchByAuthor(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestParam String author,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        String etag = catalogVersions.catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return cacheable(etag).body(catalogSearchService.searchByAuthor(author, page, size));
     }
 
     // ================= SEARCH BY GENRE =================
     @GetMapping("/search/genre")
-    public ResponseEntity<List<Book>> searchByGenre(@RequestParam String genre) {
-        return ResponseEntity.ok(bookRepository.findByGenreIgnoreCase(genre));
+    public ResponseEntity<List<Book>> searchByGenre(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestParam String genre,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        String etag = catalogVersions.catalogETag();
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return cacheable(etag).body(catalogSearchService.searchByGenre(genre, page, size));
     }
 
     // ================= READ BY ID =================
+    // Served from BookCache; the Age header says how long ago the book (and its stock) was read.
+    // The ETag comes from the book's version counter, checked before any lookup.
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<Book> getBookById(
+            @PathVariable Long id,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
 
-        Book book = bookRepository.findById(id)
+        String etag = catalogVersions.bookETag(id);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        BookCache.CachedBook cached = bookCache.get(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Book not found with id: " + id));
 
-        return ResponseEntity.ok(book);
+        return cacheable(etag)
+                .header("Age", String.valueOf(cached.getAgeSeconds()))
+                .body(cached.getBook());
     }
 
     // ================= UPDATE (ADMIN ONLY) =================
@@ -90,7 +236,10 @@ public class BookController {
         existingBook.setPrice(updatedBook.getPrice());
         existingBook.setStock(updatedBook.getStock());
 
-        return ResponseEntity.ok(bookRepository.save(existingBook));
+        Book saved = bookRepository.save(existingBook);
+        catalogSearchService.bookSaved(saved);
+        bookCache.evict(id);
+        return ResponseEntity.ok(saved);
     }
 
     // ================= DELETE (ADMIN ONLY) =================
@@ -103,7 +252,37 @@ public class BookController {
                         new ResourceNotFoundException("Book not found with id: " + id));
 
         bookRepository.delete(book);
+        catalogSearchService.bookDeleted(id);
+        bookCache.evict(id);
 
         return ResponseEntity.ok("Book deleted successfully");
     }
-}
\ No newline at end of file
+
+    // ================= CONDITIONAL GET =================
+
+    private ResponseEntity.BodyBuilder cacheable(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic().mustRevalidate());
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic().mustRevalidate())
+                .build();
+    }
+
+    // Strong comparison against each tag in the header
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            if (tag.trim().equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,33 +1,41 @@
 package com.bookstore.controller;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-
 import com.bookstore.entity.PaymentStatus;
 import com.bookstore.entity.OrderStatus;
 import com.bookstore.exception.ResourceNotFoundException;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderIntakeStatus;
 import com.bookstore.dto.OrderRequest;
 import com.bookstore.dto.OrderResponse;
-import com.bookstore.entity.Book;
+import com.bookstore.dto.OrderSummary;
+import com.bookstore.dto.OrderTransition;
+import com.bookstore.dto.TransitionResult;
 import com.bookstore.entity.Order;
-import com.bookstore.entity.OrderItem;
-import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.OrderRepository;
-
-import com.lowagie.text.Document;
-import com.lowagie.text.Paragraph;
-import com.lowagie.text.pdf.PdfWriter;
+import com.bookstore.service.InvoiceCache;
+import com.bookstore.service.InvoiceExportService;
+import com.bookstore.service.InvoiceService;
+import com.bookstore.service.OrderIdempotency;
+import com.bookstore.service.OrderIntake;
+import com.bookstore.service.OrderService;
+import com.bookstore.service.OrderTransitionService;
 
 @RestController
 @RequestMapping("/orders")
@@ -37,68 +45,88 @@ public class OrderController {
     private OrderRepository orderRepository;
 
     @Autowired
-    private BookRepository bookRepository;
-
-    // ================= PLACE ORDER =================
-    @PostMapping
-    public ResponseEntity<OrderResponse> placeOrder(
-            @RequestBody OrderRequest orderRequest,
-            Authentication authentication) {
+    private OrderService orderService;
 
-        if (authentication == null) {
-            throw new RuntimeException("User not authenticated");
-        }
+    @Autowired
+    private OrderIntake orderIntake;
 
-        String userEmail = authentication.getName();
+    @Autowired
+    private OrderIdempotency orderIdempotency;
 
-        Order order = new Order();
-        order.setUserEmail(userEmail);
-        order.setOrderDate(LocalDateTime.now());
-        order.setPaymentStatus(PaymentStatus.PENDING);
-        order.setOrderStatus(OrderStatus.PLACED);
+    // When true, POST /orders queues the order and answers 202 with a ticket
+    @Value("${order.intake.enabled:false}")
+    private boolean orderIntakeEnabled;
 
-        double totalAmount = 0;
-        List<OrderItem> orderItems = new ArrayList<>();
+    @Autowired
+    private InvoiceCache invoiceCache;
 
-        for (OrderItemRequest item : orderRequest.getItems()) {
+    @Autowired
+    private InvoiceService invoiceService;
 
-            Book book = bookRepository.findById(item.getBookId())
-                    .orElseThrow(() ->
-                            new ResourceNotFoundException("Book not found with id: " + item.getBookId()));
+    @Autowired
+    private InvoiceExportService invoiceExportService;
 
-            if (book.getStock() < item.getQuantity()) {
-                throw new IllegalArgumentException(
-                        "Not enough stock for book: " + book.getTitle());
-            }
+    @Autowired
+    private OrderTransitionService orderTransitionService;
 
-            // Reduce stock
-            book.setStock(book.getStock() - item.getQuantity());
-            bookRepository.save(book);
+    // ================= PLACE ORDER =================
+    // With an Idempotency-Key, a retry returns the first response (or intake ticket) instead of ordering again
+    @PostMapping
+    public ResponseEntity<?> placeOrder(
+            @RequestBody OrderRequest orderRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication) {
 
-            // Create order item
-            OrderItem orderItem = new OrderItem();
-            orderItem.setBookId(book.getId());
-            orderItem.setQuantity(item.getQuantity());
-            orderItem.setPrice(book.getPrice());
-            orderItem.setOrder(order);
+        if (authentication == null) {
+            throw new RuntimeException("User not authenticated");
+        }
 
-            totalAmount += book.getPrice() * item.getQuantity();
-            orderItems.add(orderItem);
+        if (orderIntakeEnabled) {
+            OrderIntakeStatus queued = orderIntake.submit(orderRequest, authentication.getName(), idempotencyKey);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/orders/intake/" + queued.getTicket()))
+                    .body(queued);
         }
 
-        order.setTotalAmount(totalAmount);
-        order.setOrderItems(orderItems);
+        if (idempotencyKey != null) {
+            return ResponseEntity.ok(
+                    orderIdempotency.placeOrder(orderRequest, authentication.getName(), idempotencyKey));
+        }
 
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = orderService.placeOrder(orderRequest, authentication.getName());
 
         return ResponseEntity.ok(
                 new OrderResponse(savedOrder.getId(), "Order placed successfully")
         );
     }
 
-    // ================= GET MY ORDERS =================
+    // ================= ASYNC ORDER STATUS =================
+    // Poll, or pass wait (seconds, up to 30) to be answered as soon as the order is placed or rejected
+    @GetMapping("/intake/{ticket}")
+    public CompletableFuture<OrderIntakeStatus> getIntakeStatus(
+            @PathVariable String ticket,
+            @RequestParam(defaultValue = "0") int wait,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            throw new RuntimeException("User not authenticated");
+        }
+        if (wait < 0 || wait > 30) {
+            throw new IllegalArgumentException("wait must be between 0 and 30 seconds");
+        }
+
+        if (wait == 0) {
+            return CompletableFuture.completedFuture(orderIntake.status(ticket, authentication.getName()));
+        }
+        return orderIntake.awaitStatus(ticket, authentication.getName(), Duration.ofSeconds(wait));
+    }
+
+    // ================= GET MY ORDERS (PAGINATED) =================
     @GetMapping("/my")
-    public ResponseEntity<List<Order>> getMyOrders(Authentication authentication) {
+    public ResponseEntity<Page<OrderSummary>> getMyOrders(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
 
         if (authentication == null) {
             throw new RuntimeException("User not authenticated");
@@ -106,9 +134,7 @@ public class OrderController {
 
         String userEmail = authentication.getName();
 
-        List<Order> orders = orderRepository.findByUserEmail(userEmail);
-
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok(orderService.getOrdersForUser(userEmail, page, size));
     }
 
     // ================= UPDATE ORDER STATUS (ADMIN) =================
@@ -118,13 +144,17 @@ public class OrderController {
             @PathVariable Long id,
             @RequestParam OrderStatus status) {
 
-        return orderRepository.findById(id)
-                .map(order -> {
-                    order.setOrderStatus(status);
-                    return ResponseEntity.ok(orderRepository.save(order));
-                })
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Order not found with id: " + id));
+        return ResponseEntity.ok(orderTransitionService.setOrderStatus(id, status));
+    }
+
+    // ================= BULK STATUS UPDATES (ADMIN) =================
+    // Applies a list of order/payment status changes set-based; answers one small result per entry
+    @PostMapping("/transitions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TransitionResult>> applyTransitions(
+            @RequestBody List<OrderTransition> transitions) {
+
+        return ResponseEntity.ok(orderTransitionService.apply(transitions));
     }
 
     // ================= UPDATE PAYMENT STATUS (ADMIN) =================
@@ -134,19 +164,13 @@ public class OrderController {
             @PathVariable Long id,
             @RequestParam PaymentStatus paymentStatus) {
 
-        return orderRepository.findById(id)
-                .map(order -> {
-                    order.setPaymentStatus(paymentStatus);
-                    return ResponseEntity.ok(orderRepository.save(order));
-                })
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Order not found with id: " + id));
+        return ResponseEntity.ok(orderTransitionService.setPaymentStatus(id, paymentStatus));
     }
 
     // ================= DOWNLOAD INVOICE =================
  // ================= DOWNLOAD INVOICE (SECURED) =================
     @GetMapping("/{id}/invoice")
-    public ResponseEntity<byte[]> downloadInvoice(
+    public ResponseEntity<StreamingResponseBody> downloadInvoice(
             @PathVariable Long id,
             Authentication authentication) {
 
@@ -169,47 +193,39 @@ public class OrderController {
             throw new RuntimeException("Access Denied: You cannot download this invoice");
         }
 
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Document document = new Document();
-            PdfWriter.getInstance(document, baos);
-
-            document.open();
-
-            document.add(new Paragraph("===== BOOKSTORE INVOICE ====="));
-            document.add(new Paragraph(" "));
-            document.add(new Paragraph("Order ID: " + order.getId()));
-            document.add(new Paragraph("Customer: " + order.getUserEmail()));
-            document.add(new Paragraph("Date: " + order.getOrderDate()));
-            document.add(new Paragraph("Payment Status: " + order.getPaymentStatus()));
-            document.add(new Paragraph("Order Status: " + order.getOrderStatus()));
-            document.add(new Paragraph(" "));
-            document.add(new Paragraph("Items:"));
-            document.add(new Paragraph("---------------------------------------"));
-
-            for (OrderItem item : order.getOrderItems()) {
-                document.add(new Paragraph(
-                        "Book ID: " + item.getBookId() +
-                        " | Quantity: " + item.getQuantity() +
-                        " | Price: " + item.getPrice()
-                ));
-            }
-
-            document.add(new Paragraph("---------------------------------------"));
-            document.add(new Paragraph("Total Amount: $" + order.getTotalAmount()));
-
-            document.close();
-
-            return ResponseEntity.ok()
-                    .header("Content-Disposition",
-                            "attachment; filename=invoice_" + id + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(baos.toByteArray());
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating invoice");
+        // A cache hit needs only the order's own columns; the items are fetched (in one
+        // query, since the body is written on another thread) only when it has to render
+        StreamingResponseBody body = out ->
+                invoiceCache.write(order, out, stream -> invoiceService.writeInvoice(
+                        orderRepository.findWithItemsByIdIn(List.of(id)).get(0), stream));
+
+        return ResponseEntity.ok()
+                .header("Content-Disposition",
+                        "attachment; filename=invoice_" + id + ".pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    // ================= EXPORT INVOICES AS ZIP (ADMIN) =================
+    @GetMapping("/invoices/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
         }
+
+        StreamingResponseBody body = out -> invoiceExportService.exportZip(from, to, out);
+
+        return ResponseEntity.ok()
+                .header("Content-Disposition",
+                        "attachment; filename=invoices_" + from + "_" + to + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
     }
+
  // ================= CANCEL ORDER (CUSTOMER) =================
     @PutMapping("/{id}/cancel")
     public ResponseEntity<?> cancelOrder(
@@ -220,23 +236,7 @@ public class OrderController {
             throw new RuntimeException("User not authenticated");
         }
 
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Order not found with id: " + id));
-
-        // Only order owner can cancel
-        if (!order.getUserEmail().equals(authentication.getName())) {
-            throw new RuntimeException("Access denied");
-        }
-
-        // Cannot cancel if already shipped or delivered
-        if (order.getOrderStatus() == OrderStatus.SHIPPED ||
-            order.getOrderStatus() == OrderStatus.DELIVERED) {
-            throw new RuntimeException("Cannot cancel shipped/delivered order");
-        }
-
-        order.setOrderStatus(OrderStatus.CANCELLED);
-
-        return ResponseEntity.ok(orderRepository.save(order));
+        // Only the order owner can cancel, and not once it has shipped
+        return ResponseEntity.ok(orderTransitionService.cancel(id, authentication.getName()));
     }
 }
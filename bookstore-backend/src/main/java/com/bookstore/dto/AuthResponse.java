@@ -0,0 +1,37 @@
+package com.bookstore.dto;
+
+/**
+ * Tokens returned by login and refresh. The access token goes in the
+ * Authorization header; the refresh token is exchanged at /auth/refresh
+ * for a new pair and is good for one use.
+ */
+public class AuthResponse {
+
+    private final String accessToken;
+    private final String refreshToken;
+    private final String tokenType = "Bearer";
+    private final long expiresIn;
+
+    public AuthResponse(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    // Seconds until the access token expires
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
@@ -0,0 +1,102 @@
+package com.bookstore.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+import com.bookstore.entity.Book;
+
+/**
+ * Opaque keyset cursor for GET /books: the sort field and direction plus the
+ * sort key and id of the last book on the previous page.
+ */
+public class BookCursor {
+
+    public static final Set<String> SORT_FIELDS =
+            Set.of("id", "title", "author", "genre", "price", "stock");
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final boolean descending;
+    private final Long lastId;
+    private final Object lastValue;
+
+    public BookCursor(String sortBy, boolean descending, Long lastId, Object lastValue) {
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    // Cursor pointing just past the given book
+    public static BookCursor after(Book book, String sortBy, boolean descending) {
+        return new BookCursor(sortBy, descending, book.getId(), sortValue(book, sortBy));
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR + lastId
+                + SEPARATOR + (lastValue == null ? "n" : "v" + lastValue);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+
+            String sortBy = parts[0];
+            if (!SORT_FIELDS.contains(sortBy)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+
+            boolean descending = "desc".equals(parts[1]);
+            Long lastId = Long.valueOf(parts[2]);
+            Object lastValue = parts[3].startsWith("v")
+                    ? parseValue(sortBy, parts[3].substring(1))
+                    : null;
+
+            return new BookCursor(sortBy, descending, lastId, lastValue);
+
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static Object sortValue(Book book, String sortBy) {
+        return switch (sortBy) {
+            case "title" -> book.getTitle();
+            case "author" -> book.getAuthor();
+            case "genre" -> book.getGenre();
+            case "price" -> book.getPrice();
+            case "stock" -> book.getStock();
+            default -> book.getId();
+        };
+    }
+
+    private static Object parseValue(String sortBy, String value) {
+        return switch (sortBy) {
+            case "price" -> Double.valueOf(value);
+            case "stock" -> Integer.valueOf(value);
+            case "id" -> Long.valueOf(value);
+            default -> value;
+        };
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public Object getLastValue() {
+        return lastValue;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final Long totalElements;
+
+    public CursorPage(List<T> content, String nextCursor, Long totalElements) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    // Pass back as "after" to get the next page; null on the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    // Only filled in when the client asks for it (withTotal=true)
+    public Long getTotalElements() {
+        return totalElements;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bookstore.dto;
+
+public class ImportError {
+
+    private final long line;
+    private final String message;
+
+    public ImportError(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    // 1-based line number in the uploaded file
+    public long getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
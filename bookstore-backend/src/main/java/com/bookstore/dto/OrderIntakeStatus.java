@@ -0,0 +1,42 @@
+package com.bookstore.dto;
+
+/**
+ * Where an order submitted to the asynchronous intake stands. The order id
+ * is set once the order is PLACED; a REJECTED order carries the reason.
+ */
+public class OrderIntakeStatus {
+
+    public enum State {
+        QUEUED,
+        PLACED,
+        REJECTED
+    }
+
+    private final String ticket;
+    private final State status;
+    private final Long orderId;
+    private final String message;
+
+    public OrderIntakeStatus(String ticket, State status, Long orderId, String message) {
+        this.ticket = ticket;
+        this.status = status;
+        this.orderId = orderId;
+        this.message = message;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public State getStatus() {
+        return status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class OrderLine {
+
+    private final Long orderId;
+    private final Long bookId;
+    private final int quantity;
+    private final double price;
+
+    public OrderLine(Long orderId, Long bookId, int quantity, double price) {
+        this.orderId = orderId;
+        this.bookId = bookId;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    // Only used to group lines under their order
+    @JsonIgnore
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bookstore.dto;
+
+import java.time.LocalDateTime;
+
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+
+// An order's statuses, read without loading the entity
+public class OrderState {
+
+    private final Long orderId;
+    private final OrderStatus orderStatus;
+    private final PaymentStatus paymentStatus;
+    private final LocalDateTime orderDate;
+
+    public OrderState(Long orderId, OrderStatus orderStatus, PaymentStatus paymentStatus, LocalDateTime orderDate) {
+        this.orderId = orderId;
+        this.orderStatus = orderStatus;
+        this.paymentStatus = paymentStatus;
+        this.orderDate = orderDate;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public OrderStatus getOrderStatus() {
+        return orderStatus;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+}
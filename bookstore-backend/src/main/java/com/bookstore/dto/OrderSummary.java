@@ -0,0 +1,51 @@
+package com.bookstore.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+
+public class OrderSummary {
+
+    private final Long id;
+    private final double totalAmount;
+    private final LocalDateTime orderDate;
+    private final PaymentStatus paymentStatus;
+    private final OrderStatus orderStatus;
+    private final List<OrderLine> items = new ArrayList<>();
+
+    public OrderSummary(Long id, double totalAmount, LocalDateTime orderDate,
+                        PaymentStatus paymentStatus, OrderStatus orderStatus) {
+        this.id = id;
+        this.totalAmount = totalAmount;
+        this.orderDate = orderDate;
+        this.paymentStatus = paymentStatus;
+        this.orderStatus = orderStatus;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public OrderStatus getOrderStatus() {
+        return orderStatus;
+    }
+
+    public List<OrderLine> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,16 @@
+package com.bookstore.dto;
+
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// One entry of a bulk status update; either status may be left out
+@Getter
+@Setter
+public class OrderTransition {
+    private Long orderId;
+    private OrderStatus orderStatus;
+    private PaymentStatus paymentStatus;
+}
@@ -0,0 +1,10 @@
+package com.bookstore.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class RevokeRequest {
+    private String token;
+}
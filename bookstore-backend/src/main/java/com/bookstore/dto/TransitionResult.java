@@ -0,0 +1,37 @@
+package com.bookstore.dto;
+
+/**
+ * What a bulk status update did to one order. REJECTED carries the reason;
+ * UNCHANGED means the order was already in the requested state.
+ */
+public class TransitionResult {
+
+    public enum Outcome {
+        APPLIED,
+        UNCHANGED,
+        NOT_FOUND,
+        REJECTED
+    }
+
+    private final Long orderId;
+    private final Outcome outcome;
+    private final String message;
+
+    public TransitionResult(Long orderId, Outcome outcome, String message) {
+        this.orderId = orderId;
+        this.outcome = outcome;
+        this.message = message;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
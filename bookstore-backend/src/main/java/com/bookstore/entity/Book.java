@@ -2,12 +2,24 @@ package com.bookstore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        // (sort key, id) indexes back the keyset pagination seek predicates
+        @Index(name = "idx_book_title_id", columnList = "title, id"),
+        @Index(name = "idx_book_author_id", columnList = "author, id"),
+        @Index(name = "idx_book_genre_id", columnList = "genre, id"),
+        @Index(name = "idx_book_price_id", columnList = "price, id")
+})
+// Non-strict: stock also changes through plain JDBC, which evicts the entry itself
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "book")
 public class Book {
 
     @Id
@@ -0,0 +1,20 @@
+package com.bookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Revenue, units and orders per book, maintained by SalesAnalytics
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "book_sales")
+public class BookSalesSummary {
+
+    @Id
+    private Long bookId;
+
+    private long revenueCents;
+    private long units;
+    private long orderCount;
+}
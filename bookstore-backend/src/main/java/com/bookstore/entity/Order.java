@@ -11,7 +11,12 @@ import lombok.*;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // GET /orders/my filters by user and sorts newest first
+        @Index(name = "idx_orders_user_email", columnList = "user_email, order_date"),
+        // the invoice export walks a date range in id order
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, id")
+})
 public class Order {
 
     @Id
@@ -0,0 +1,34 @@
+package com.bookstore.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Orders per order status (dimension ORDER) and payment status (PAYMENT), maintained by SalesAnalytics
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@IdClass(OrderStatusSummary.Key.class)
+@Table(name = "order_status_count")
+public class OrderStatusSummary {
+
+    @Id
+    @Column(length = 16)
+    private String dimension;
+
+    @Id
+    @Column(length = 32)
+    private String status;
+
+    private long orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String dimension;
+        private String status;
+    }
+}
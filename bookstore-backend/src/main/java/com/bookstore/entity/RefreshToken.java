@@ -0,0 +1,40 @@
+package com.bookstore.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// One refresh token; only its SHA-256 is stored. Rotation keeps the family id
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "refresh_token",
+        indexes = {
+                @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+                @Index(name = "idx_refresh_token_expires_at", columnList = "expires_at")
+        })
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    // Every token rotated from the same login shares it
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    // Set once the token has been exchanged or the session logged out
+    @Column(nullable = false)
+    private boolean revoked;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,26 @@
+package com.bookstore.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// An access token revoked before its expiry, by its jti; reloaded at startup
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "revoked_token",
+        indexes = @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"))
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
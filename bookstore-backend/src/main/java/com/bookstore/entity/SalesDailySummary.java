@@ -0,0 +1,36 @@
+package com.bookstore.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Revenue, units and orders per day and genre, maintained by SalesAnalytics
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@IdClass(SalesDailySummary.Key.class)
+@Table(name = "sales_daily")
+public class SalesDailySummary {
+
+    @Id
+    private LocalDate salesDay;
+
+    @Id
+    @Column(length = 100)
+    private String genre;
+
+    private long revenueCents;
+    private long units;
+    private long orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDay;
+        private String genre;
+    }
+}
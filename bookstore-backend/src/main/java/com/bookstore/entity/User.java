@@ -1,7 +1,15 @@
 package com.bookstore.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.bookstore.security.UserCacheEvictor;
+
 @Entity
+@Cacheable
+@EntityListeners(UserCacheEvictor.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User {
 
     @Id
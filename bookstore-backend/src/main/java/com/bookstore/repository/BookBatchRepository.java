@@ -0,0 +1,96 @@
+package com.bookstore.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.entity.Book;
+
+/**
+ * Multi-row book writes for the catalog import.
+ *
+ * Hibernate cannot batch inserts into an IDENTITY column, so these go out as
+ * plain JDBC batches. With {@code rewriteBatchedStatements=true} the MySQL
+ * driver sends each insert batch as one multi-row statement.
+ */
+@Repository
+public class BookBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO book (title, author, genre, price, stock) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE book SET title = ?, author = ?, genre = ?, price = ?, stock = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRegionEvictor bookRegionEvictor;
+
+    // Inserts every book in one batch and sets the generated ids on them
+    public void insertAll(List<Book> books) {
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Book book = books.get(i);
+                        ps.setString(1, book.getTitle());
+                        ps.setString(2, book.getAuthor());
+                        ps.setString(3, book.getGenre());
+                        ps.setDouble(4, book.getPrice());
+                        ps.setInt(5, book.getStock());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return books.size();
+                    }
+                },
+                keys);
+
+        // One key per row, in batch order; the column is named differently per driver
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < books.size(); i++) {
+            books.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    /**
+     * Updates every book by id in one batch.
+     *
+     * @return one flag per book, false where no row has that id
+     */
+    public boolean[] updateAll(List<Book> books) {
+
+        List<Object[]> args = new ArrayList<>(books.size());
+        for (Book book : books) {
+            args.add(new Object[]{book.getTitle(), book.getAuthor(), book.getGenre(),
+                    book.getPrice(), book.getStock(), book.getId()});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        bookRegionEvictor.evict(books.stream().map(Book::getId).toList());
+
+        boolean[] found = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            // Rewritten batches may not report per-row counts
+            found[i] = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+        }
+        return found;
+    }
+}
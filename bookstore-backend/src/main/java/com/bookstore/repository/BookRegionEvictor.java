@@ -0,0 +1,54 @@
+package com.bookstore.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bookstore.entity.Book;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Drops books from the Hibernate second-level cache after they are written
+ * with plain JDBC, which Hibernate cannot see.
+ *
+ * Inside a transaction the books are evicted again once it commits, so a
+ * copy of the old row loaded in the meantime does not linger.
+ */
+@Component
+public class BookRegionEvictor {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public void evict(Collection<Long> ids) {
+
+        List<Long> copy = List.copyOf(ids);
+        evictNow(copy);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(copy);
+                }
+            });
+        }
+    }
+
+    public void evict(Long id) {
+        evict(List.of(id));
+    }
+
+    private void evictNow(List<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        for (Long id : ids) {
+            cache.evict(Book.class, id);
+        }
+    }
+}
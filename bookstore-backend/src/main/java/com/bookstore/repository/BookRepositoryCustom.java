@@ -0,0 +1,18 @@
+package com.bookstore.repository;
+
+import java.util.List;
+
+import com.bookstore.entity.Book;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Keyset ("seek") page of books ordered by {@code sortBy} then id.
+     *
+     * Returns the books that come strictly after ({@code lastValue}, {@code lastId})
+     * in that order, or the first page when {@code lastId} is null. No OFFSET and
+     * no COUNT query are issued.
+     */
+    List<Book> findPageAfter(String sortBy, boolean descending,
+                             Object lastValue, Long lastId, int limit);
+}
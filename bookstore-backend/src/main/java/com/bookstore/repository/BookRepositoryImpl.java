@@ -0,0 +1,80 @@
+package com.bookstore.repository;
+
+import java.util.List;
+
+import com.bookstore.entity.Book;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Seek predicates for keyset pagination.
+ *
+ * Null sort keys follow MySQL's ordering: first when ascending, last when
+ * descending. Only the text columns can be null.
+ */
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Book> findPageAfter(String sortBy, boolean descending,
+                                    Object lastValue, Long lastId, int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> book = query.from(Book.class);
+
+        Path<Long> id = book.get("id");
+        Path<Comparable<Object>> key = book.get(sortBy);
+
+        if (lastId != null) {
+            query.where("id".equals(sortBy)
+                    ? after(cb, id, lastId, descending)
+                    : seek(cb, key, lastValue, id, lastId, descending));
+        }
+
+        if ("id".equals(sortBy)) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            query.orderBy(descending ? cb.desc(key) : cb.asc(key),
+                          descending ? cb.desc(id) : cb.asc(id));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // (key, id) strictly after (value, lastId) in the requested direction
+    private Predicate seek(CriteriaBuilder cb, Path<Comparable<Object>> key, Object value,
+                           Path<Long> id, Long lastId, boolean descending) {
+
+        Predicate sameKeyLaterId = after(cb, id, lastId, descending);
+
+        if (value == null) {
+            Predicate nullTie = cb.and(cb.isNull(key), sameKeyLaterId);
+            return descending ? nullTie : cb.or(nullTie, cb.isNotNull(key));
+        }
+
+        @SuppressWarnings("unchecked")
+        Comparable<Object> bound = (Comparable<Object>) value;
+
+        Predicate beyond = descending ? cb.lessThan(key, bound) : cb.greaterThan(key, bound);
+        Predicate tie = cb.and(cb.equal(key, bound), sameKeyLaterId);
+
+        return descending
+                ? cb.or(beyond, tie, cb.isNull(key))
+                : cb.or(beyond, tie);
+    }
+
+    private Predicate after(CriteriaBuilder cb, Path<Long> id, Long lastId, boolean descending) {
+        return descending ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+    }
+}
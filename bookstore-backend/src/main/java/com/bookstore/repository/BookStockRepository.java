@@ -0,0 +1,111 @@
+package com.bookstore.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Stock updates that must not go through a JPA read-modify-write.
+ *
+ * Every decrement is a conditional UPDATE, so the database row lock is the
+ * only place where the stock check happens and two checkouts can never both
+ * take the last copy.
+ *
+ * Batches update their rows in ascending book id, whatever order the caller's
+ * map is in. Two carts holding the same books in opposite orders then lock
+ * the rows in the same order and queue instead of deadlocking.
+ */
+@Repository
+public class BookStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE book SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE book SET stock = stock + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRegionEvictor bookRegionEvictor;
+
+    /**
+     * Decrements stock for every entry of {@code quantities} (book id -> quantity)
+     * in a single JDBC batch.
+     *
+     * @return the ids whose row was not updated because stock was insufficient
+     */
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        List<Long> ids = new ArrayList<>(quantities.size());
+
+        new TreeMap<>(quantities).forEach((bookId, quantity) -> {
+            args.add(new Object[]{quantity, bookId, quantity});
+            ids.add(bookId);
+        });
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+        bookRegionEvictor.evict(ids);
+
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 1) {
+                rejected.add(ids.get(i));
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Applies a net change to one book. A positive {@code quantity} is only
+     * taken when enough stock is left; zero or negative always succeeds.
+     */
+    public boolean decrementStock(Long bookId, int quantity) {
+        boolean updated = jdbcTemplate.update(DECREMENT_SQL, quantity, bookId, quantity) == 1;
+        bookRegionEvictor.evict(bookId);
+        return updated;
+    }
+
+    // Gives reserved stock back, e.g. when an order fails after reserving
+    public void incrementStock(Map<Long, Integer> quantities) {
+
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        new TreeMap<>(quantities).forEach((bookId, quantity) -> args.add(new Object[]{quantity, bookId}));
+
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, args);
+        bookRegionEvictor.evict(quantities.keySet());
+    }
+
+    // Current stock of every id that exists, read in one query
+    public Map<Long, Integer> findStocks(Collection<Long> bookIds) {
+
+        Map<Long, Integer> stocks = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return stocks;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(bookIds.size(), "?"));
+        jdbcTemplate.query("SELECT id, stock FROM book WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    stocks.put(rs.getLong("id"), rs.getInt("stock"));
+                },
+                bookIds.toArray());
+        return stocks;
+    }
+
+    public Integer findStock(Long bookId) {
+        List<Integer> stock = jdbcTemplate.queryForList(
+                "SELECT stock FROM book WHERE id = ?", Integer.class, bookId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+}
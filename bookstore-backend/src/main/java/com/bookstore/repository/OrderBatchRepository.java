@@ -0,0 +1,150 @@
+package com.bookstore.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.bookstore.dto.OrderState;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderItem;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+
+/**
+ * Multi-order writes: inserts for the asynchronous order intake and
+ * set-based status updates for the bulk transition endpoint.
+ *
+ * Like {@link BookBatchRepository}, this goes around Hibernate, which cannot
+ * batch inserts into IDENTITY columns: all orders go out as one JDBC batch,
+ * then all of their lines as another. Status updates touch only the status
+ * column, one statement per target status, without loading any order.
+ */
+@Repository
+public class OrderBatchRepository {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (user_email, total_amount, order_date, payment_status, order_status) "
+                    + "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO order_item (order_id, book_id, quantity, price) VALUES (?, ?, ?, ?)";
+
+    // Keeps IN lists well under driver and database parameter limits
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Inserts the orders and their items, and sets the generated order ids
+    public void insertAll(List<Order> orders) {
+
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_ORDER_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Order order = orders.get(i);
+                        ps.setString(1, order.getUserEmail());
+                        ps.setDouble(2, order.getTotalAmount());
+                        ps.setTimestamp(3, Timestamp.valueOf(order.getOrderDate()));
+                        ps.setString(4, order.getPaymentStatus().name());
+                        ps.setString(5, order.getOrderStatus().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return orders.size();
+                    }
+                },
+                keys);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            order.setId(((Number) keys.getKeyList().get(i).values().iterator().next()).longValue());
+            for (OrderItem item : order.getOrderItems()) {
+                items.add(new Object[]{order.getId(), item.getBookId(), item.getQuantity(), item.getPrice()});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items);
+    }
+
+    /**
+     * Reads the statuses of the given orders and locks their rows until the
+     * transaction ends, so they cannot change between the read and the
+     * update. Rows are locked in id order; missing ids are left out.
+     */
+    public Map<Long, OrderState> lockStates(Collection<Long> orderIds) {
+
+        Map<Long, OrderState> states = new HashMap<>();
+        for (List<Long> chunk : chunks(new TreeSet<>(orderIds))) {
+            jdbcTemplate.query("SELECT id, order_status, payment_status, order_date FROM orders WHERE id IN ("
+                    + placeholders(chunk.size()) + ") ORDER BY id FOR UPDATE", rs -> {
+                Timestamp orderDate = rs.getTimestamp(4);
+                String orderStatus = rs.getString(2);
+                String paymentStatus = rs.getString(3);
+                states.put(rs.getLong(1), new OrderState(rs.getLong(1),
+                        orderStatus == null ? null : OrderStatus.valueOf(orderStatus),
+                        paymentStatus == null ? null : PaymentStatus.valueOf(paymentStatus),
+                        orderDate == null ? null : orderDate.toLocalDateTime()));
+            }, chunk.toArray());
+        }
+        return states;
+    }
+
+    public int updateOrderStatus(OrderStatus status, Collection<Long> orderIds) {
+        return updateColumn("order_status", status.name(), orderIds);
+    }
+
+    public int updatePaymentStatus(PaymentStatus status, Collection<Long> orderIds) {
+        return updateColumn("payment_status", status.name(), orderIds);
+    }
+
+    private int updateColumn(String column, String value, Collection<Long> orderIds) {
+
+        int updated = 0;
+        for (List<Long> chunk : chunks(orderIds)) {
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(value);
+            args.addAll(chunk);
+            updated += jdbcTemplate.update("UPDATE orders SET " + column + " = ? WHERE id IN ("
+                    + placeholders(chunk.size()) + ")", args.toArray());
+        }
+        return updated;
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += MAX_IDS_PER_STATEMENT) {
+            chunks.add(all.subList(from, Math.min(all.size(), from + MAX_IDS_PER_STATEMENT)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
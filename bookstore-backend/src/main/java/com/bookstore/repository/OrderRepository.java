@@ -1,13 +1,58 @@
-package com.bookstore.repository;
-
-import java.util.List;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-
-import com.bookstore.entity.Order;
-
-public interface OrderRepository extends JpaRepository<Order, Long> {
-
-    // User-specific orders
-    List<Order> findByUserEmail(String userEmail);
-}
+package com.bookstore.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.bookstore.dto.OrderLine;
+import com.bookstore.dto.OrderSummary;
+import com.bookstore.entity.Order;
+
+import jakarta.persistence.LockModeType;
+
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // User-specific orders
+    List<Order> findByUserEmail(String userEmail);
+
+    // Newest first, as flat rows without loading the entities
+    @Query(value = "select new com.bookstore.dto.OrderSummary("
+                 + "o.id, o.totalAmount, o.orderDate, o.paymentStatus, o.orderStatus) "
+                 + "from Order o where o.userEmail = :userEmail "
+                 + "order by o.orderDate desc, o.id desc",
+           countQuery = "select count(o) from Order o where o.userEmail = :userEmail")
+    Page<OrderSummary> findSummariesByUserEmail(@Param("userEmail") String userEmail,
+                                                Pageable pageable);
+
+    // Items for a whole page of orders in one query
+    @Query("select new com.bookstore.dto.OrderLine(i.order.id, i.bookId, i.quantity, i.price) "
+         + "from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<OrderLine> findLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Next chunk of order ids in a date range, after the last id already seen
+    @Query("select o.id from Order o "
+         + "where o.orderDate >= :from and o.orderDate < :to and o.id > :afterId "
+         + "order by o.id")
+    List<Long> findIdsByOrderDateBetween(@Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    // Orders with their items in one query
+    @Query("select distinct o from Order o left join fetch o.orderItems "
+         + "where o.id in :ids order by o.id")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // SELECT ... FOR UPDATE: the row stays locked until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,375 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over book title, author and genre.
+ *
+ * Title and author are indexed by character trigrams, so a substring query
+ * only has to verify the documents that share all of its trigrams instead of
+ * scanning the table. Genre is indexed by exact value, and every field's
+ * words go into a token index used to rank whole-word matches higher.
+ *
+ * Postings are sorted primitive int arrays of document ordinals. Deleted
+ * documents are tombstoned and dropped when the index is compacted.
+ */
+public class CatalogSearchIndex {
+
+    public enum Field {
+        TITLE(3),
+        AUTHOR(2),
+        GENRE(1);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int GRAM = 3;
+    private static final int COMPACT_MIN_DELETED = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Document store, indexed by ordinal; field values are lower-cased
+    private long[] bookIds = new long[1024];
+    private String[][] values = new String[Field.values().length][1024];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int deletedCount;
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private final Map<String, IntList> titleGrams = new HashMap<>();
+    private final Map<String, IntList> authorGrams = new HashMap<>();
+    private final Map<String, IntList> genres = new HashMap<>();
+    private final Map<String, IntList> tokens = new HashMap<>();
+
+    // ================= WRITES =================
+
+    public void index(Long bookId, String title, String author, String genre) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(bookId);
+            addInternal(bookId, normalize(title), normalize(author), normalize(genre));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(bookId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            bookIds = new long[1024];
+            values = new String[Field.values().length][1024];
+            deleted.clear();
+            docCount = 0;
+            deletedCount = 0;
+            ordinals.clear();
+            titleGrams.clear();
+            authorGrams.clear();
+            genres.clear();
+            tokens.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ================= QUERIES =================
+
+    /**
+     * Case-insensitive "contains" search on one field (equality for genre),
+     * ranked exact match, prefix, word start, then anywhere.
+     */
+    public SearchResult searchField(Field field, String query, long offset, int limit) {
+
+        String term = normalize(query);
+        if (term.isEmpty()) {
+            return SearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            IntList candidates = candidates(field, term);
+
+            long[] ranked = new long[candidates.size()];
+            int hits = 0;
+
+            for (int i = 0; i < candidates.size(); i++) {
+                int doc = candidates.get(i);
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                int score = fieldScore(field, values[field.ordinal()][doc], term);
+                if (score > 0) {
+                    ranked[hits++] = rankKey(score, doc);
+                }
+            }
+            return page(ranked, hits, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Free-text search: every word of the query has to appear in at least one
+     * field. Title matches outrank author matches, which outrank genre.
+     */
+    public SearchResult search(String query, long offset, int limit) {
+
+        String[] terms = tokenize(normalize(query));
+        if (terms.length == 0) {
+            return SearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            IntList candidates = null;
+            for (String term : terms) {
+                IntList termDocs = candidates(Field.TITLE, term)
+                        .union(candidates(Field.AUTHOR, term))
+                        .union(genresContaining(term));
+                candidates = candidates == null ? termDocs : intersect(candidates, termDocs);
+            }
+
+            long[] ranked = new long[candidates.size()];
+            int hits = 0;
+
+            for (int i = 0; i < candidates.size(); i++) {
+                int doc = candidates.get(i);
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                int score = 0;
+                for (String term : terms) {
+                    int termScore = 0;
+                    for (Field field : Field.values()) {
+                        String value = values[field.ordinal()][doc];
+                        if (value.contains(term)) {
+                            termScore += field.weight;
+                        }
+                    }
+                    IntList wordDocs = tokens.get(term);
+                    if (wordDocs != null && wordDocs.contains(doc)) {
+                        termScore *= 2;
+                    }
+                    if (termScore == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += termScore;
+                }
+                if (score > 0) {
+                    ranked[hits++] = rankKey(score, doc);
+                }
+            }
+            return page(ranked, hits, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ================= INTERNALS =================
+
+    // Documents that may match term in field; callers verify each one
+    private IntList candidates(Field field, String term) {
+
+        if (field == Field.GENRE) {
+            return genresContaining(term);
+        }
+
+        if (term.length() < GRAM) {
+            return liveDocs();
+        }
+
+        Map<String, IntList> grams = field == Field.TITLE ? titleGrams : authorGrams;
+        IntList result = null;
+
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            IntList postings = grams.get(term.substring(i, i + GRAM));
+            if (postings == null) {
+                return new IntList();
+            }
+            result = result == null ? postings : intersect(result, postings);
+        }
+        return result;
+    }
+
+    // Probes the smaller list against the larger one
+    private static IntList intersect(IntList a, IntList b) {
+        return a.size() <= b.size() ? a.retainAll(b) : b.retainAll(a);
+    }
+
+    // Genres are few, so scanning their keys is cheap
+    private IntList genresContaining(String term) {
+        IntList result = new IntList();
+        for (Map.Entry<String, IntList> entry : genres.entrySet()) {
+            if (entry.getKey().contains(term)) {
+                result = result.union(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private IntList liveDocs() {
+        IntList result = new IntList(docCount);
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                result.addIfLast(doc);
+            }
+        }
+        return result;
+    }
+
+    private int fieldScore(Field field, String value, String term) {
+
+        if (field == Field.GENRE) {
+            return value.equals(term) ? 4 : 0;
+        }
+
+        int index = value.indexOf(term);
+        if (index < 0) {
+            return 0;
+        }
+        if (value.length() == term.length()) {
+            return 4;
+        }
+        if (index == 0) {
+            return 3;
+        }
+        return Character.isLetterOrDigit(value.charAt(index - 1)) ? 1 : 2;
+    }
+
+    private void addInternal(Long bookId, String title, String author, String genre) {
+
+        int doc = docCount++;
+        if (doc == bookIds.length) {
+            int capacity = doc + (doc >> 1);
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            for (int f = 0; f < values.length; f++) {
+                values[f] = Arrays.copyOf(values[f], capacity);
+            }
+        }
+
+        bookIds[doc] = bookId;
+        values[Field.TITLE.ordinal()][doc] = title;
+        values[Field.AUTHOR.ordinal()][doc] = author;
+        values[Field.GENRE.ordinal()][doc] = genre;
+        ordinals.put(bookId, doc);
+
+        addGrams(titleGrams, title, doc);
+        addGrams(authorGrams, author, doc);
+        genres.computeIfAbsent(genre, g -> new IntList()).addIfLast(doc);
+
+        for (String value : new String[]{title, author, genre}) {
+            for (String token : tokenize(value)) {
+                tokens.computeIfAbsent(token, t -> new IntList()).addIfLast(doc);
+            }
+        }
+    }
+
+    private void addGrams(Map<String, IntList> grams, String value, int doc) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.computeIfAbsent(value.substring(i, i + GRAM), g -> new IntList()).addIfLast(doc);
+        }
+    }
+
+    private void removeInternal(Long bookId) {
+        Integer doc = ordinals.remove(bookId);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedCount++;
+        }
+    }
+
+    // Rebuilds postings from the live documents once tombstones dominate
+    private void compactIfNeeded() {
+
+        if (deletedCount < COMPACT_MIN_DELETED || deletedCount * 2 < docCount) {
+            return;
+        }
+
+        long[] oldIds = bookIds;
+        String[][] oldValues = values;
+        BitSet oldDeleted = (BitSet) deleted.clone();
+        int oldCount = docCount;
+
+        bookIds = new long[Math.max(1024, oldCount - deletedCount)];
+        values = new String[Field.values().length][bookIds.length];
+        deleted.clear();
+        docCount = 0;
+        deletedCount = 0;
+        ordinals.clear();
+        titleGrams.clear();
+        authorGrams.clear();
+        genres.clear();
+        tokens.clear();
+
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (!oldDeleted.get(doc)) {
+                addInternal(oldIds[doc],
+                        oldValues[Field.TITLE.ordinal()][doc],
+                        oldValues[Field.AUTHOR.ordinal()][doc],
+                        oldValues[Field.GENRE.ordinal()][doc]);
+            }
+        }
+    }
+
+    // Higher score first, then insertion order; both packed in one sortable long
+    private static long rankKey(int score, int doc) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | doc;
+    }
+
+    private SearchResult page(long[] ranked, int hits, long offset, int limit) {
+
+        Arrays.sort(ranked, 0, hits);
+
+        int from = (int) Math.min(Math.max(offset, 0), hits);
+        int to = (int) Math.min((long) from + Math.max(limit, 0), hits);
+
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(bookIds[(int) ranked[i]]);
+        }
+        return new SearchResult(ids, hits);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] tokenize(String value) {
+        return Arrays.stream(value.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+}
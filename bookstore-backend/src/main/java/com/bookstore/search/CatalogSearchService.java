@@ -0,0 +1,217 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.search.CatalogSearchIndex.Field;
+import com.bookstore.service.BookCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Serves catalog searches from {@link CatalogSearchIndex}.
+ *
+ * The index is built from the book table once the application is ready and
+ * kept in sync by {@code BookController} and the catalog import. Until it is ready, searches fall
+ * back to the repository queries. Books saved or deleted while a rebuild
+ * reads the table go to the serving index and are replayed onto the new
+ * one before it is swapped in.
+ *
+ * The number of matches of every query is recorded in
+ * {@code catalog.search.results}, tagged by search type.
+ */
+@Service
+public class CatalogSearchService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile CatalogSearchIndex index = new CatalogSearchIndex();
+    private volatile boolean ready;
+
+    // Serializes writes with the swap; while a rebuild runs, writes are also queued for replay
+    private final Lock writeLock = new ReentrantLock();
+    private final Lock rebuildLock = new ReentrantLock();
+    private List<Consumer<CatalogSearchIndex>> pendingWrites;
+
+    // ================= INDEX MAINTENANCE =================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+
+        rebuildLock.lock();
+        try {
+            writeLock.lock();
+            try {
+                pendingWrites = new ArrayList<>();
+            } finally {
+                writeLock.unlock();
+            }
+
+            CatalogSearchIndex fresh = new CatalogSearchIndex();
+
+            jdbcTemplate.query("SELECT id, title, author, genre FROM book", rs -> {
+                fresh.index(rs.getLong("id"),
+                        rs.getString("title"),
+                        rs.getString("author"),
+                        rs.getString("genre"));
+            });
+
+            // Re-indexing a book the SELECT already saw is harmless
+            writeLock.lock();
+            try {
+                pendingWrites.forEach(write -> write.accept(fresh));
+                pendingWrites = null;
+                index = fresh;
+                ready = true;
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public void bookSaved(Book book) {
+        write(target -> target.index(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre()));
+    }
+
+    // Bulk writes, e.g. one committed import batch, applied under a single lock
+    public void booksSaved(Collection<Book> books) {
+        write(target -> books.forEach(
+                book -> target.index(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre())));
+    }
+
+    public void bookDeleted(Long bookId) {
+        write(target -> target.remove(bookId));
+    }
+
+    private void write(Consumer<CatalogSearchIndex> write) {
+        writeLock.lock();
+        try {
+            write.accept(index);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ================= SEARCHES =================
+
+    public List<Book> searchByTitle(String title, int page, int size) {
+        checkPage(page, size);
+        if (!ready) {
+            return slice(recordResults("title", bookRepository.findByTitleContainingIgnoreCase(title)), page, size);
+        }
+        return load(recordResults("title", index.searchField(Field.TITLE, title, offset(page, size), size)));
+    }
+
+    public List<Book> searchByAuthor(String author, int page, int size) {
+        checkPage(page, size);
+        if (!ready) {
+            return slice(recordResults("author", bookRepository.findByAuthorContainingIgnoreCase(author)), page, size);
+        }
+        return load(recordResults("author", index.searchField(Field.AUTHOR, author, offset(page, size), size)));
+    }
+
+    public List<Book> searchByGenre(String genre, int page, int size) {
+        checkPage(page, size);
+        if (!ready) {
+            return slice(recordResults("genre", bookRepository.findByGenreIgnoreCase(genre)), page, size);
+        }
+        return load(recordResults("genre", index.searchField(Field.GENRE, genre, offset(page, size), size)));
+    }
+
+    // Ranked free-text search over title, author and genre
+    public Page<Book> search(String query, int page, int size) {
+
+        checkPage(page, size);
+        PageRequest pageable = PageRequest.of(page, size);
+
+        if (!ready) {
+            List<Book> matches = recordResults("ranked",
+                    bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrGenreContainingIgnoreCase(
+                            query, query, query));
+            return new PageImpl<>(slice(matches, page, size), pageable, matches.size());
+        }
+
+        SearchResult result = index.search(query, offset(page, size), size);
+        return new PageImpl<>(load(recordResults("ranked", result)), pageable, result.getTotal());
+    }
+
+    // Page from BookCache (one query for the misses), returned in rank order
+    private List<Book> load(List<Long> ids) {
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Book> books = bookCache.getAll(ids);
+
+        List<Book> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = books.get(id);
+            if (book != null) {
+                ordered.add(book);
+            }
+        }
+        return ordered;
+    }
+
+    private List<Long> recordResults(String type, SearchResult result) {
+        meterRegistry.summary("catalog.search.results", "type", type).record(result.getTotal());
+        return result.getBookIds();
+    }
+
+    private List<Book> recordResults(String type, List<Book> matches) {
+        meterRegistry.summary("catalog.search.results", "type", type).record(matches.size());
+        return matches;
+    }
+
+    private static void checkPage(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    // As a long: page * size can overflow an int
+    private static long offset(int page, int size) {
+        return (long) page * size;
+    }
+
+    private static List<Book> slice(List<Book> books, int page, int size) {
+        int from = (int) Math.min(offset(page, size), books.size());
+        int to = Math.min(from + size, books.size());
+        return books.subList(from, to);
+    }
+}
@@ -0,0 +1,72 @@
+package com.bookstore.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable, sorted list of document ordinals backed by a primitive int array.
+ * Ordinals are handed out in increasing order, so appending keeps it sorted.
+ */
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    // Appends unless the value is already last (one posting per document)
+    void addIfLast(int value) {
+        if (size > 0 && values[size - 1] == value) {
+            return;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    // Keeps only the values also present in other
+    IntList retainAll(IntList other) {
+        IntList result = new IntList(Math.min(size, other.size));
+        for (int i = 0; i < size; i++) {
+            if (other.contains(values[i])) {
+                result.addIfLast(values[i]);
+            }
+        }
+        return result;
+    }
+
+    // Sorted merge of two lists
+    IntList union(IntList other) {
+        IntList result = new IntList(size + other.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            int next;
+            if (j >= other.size || (i < size && values[i] <= other.values[j])) {
+                next = values[i++];
+            } else {
+                next = other.values[j++];
+            }
+            result.addIfLast(next);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bookstore.search;
+
+import java.util.List;
+
+public class SearchResult {
+
+    public static final SearchResult EMPTY = new SearchResult(List.of(), 0);
+
+    private final List<Long> bookIds;
+    private final int total;
+
+    public SearchResult(List<Long> bookIds, int total) {
+        this.bookIds = bookIds;
+        this.total = total;
+    }
+
+    // Ids of the requested page, best match first
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+
+    // Number of matches across all pages
+    public int getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,113 @@
+package com.bookstore.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that adapts to observed latency, after the gradient
+ * limiter.
+ *
+ * Latency is tracked as a short and a long moving average. While the short
+ * one stays within {@code tolerance} times the long one the limit grows by
+ * up to {@code sqrt(limit)} per sample, but only while it is actually being
+ * used; once requests slow down beyond that the limit shrinks in proportion.
+ * Both averages cover the whole lane, so a mix of fast and slow endpoints
+ * does not read as congestion.
+ *
+ * All state is held in atomics and updated with compare-and-set, so callers
+ * never block on each other.
+ */
+class AdaptiveLimit {
+
+    // Moving average weights for windows of about 10 and 500 samples
+    private static final double SHORT_WEIGHT = 2.0 / 11;
+    private static final double LONG_WEIGHT = 2.0 / 501;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong shortLatency = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicLong longLatency = new AtomicLong(Double.doubleToLongBits(0));
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(clamp(initialLimit)));
+    }
+
+    /**
+     * Takes a slot if one is free. Every successful call must be matched by
+     * {@link #release(long)}.
+     */
+    boolean tryAcquire() {
+
+        int limit = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos) {
+
+        int inFlightBefore = inFlight.getAndDecrement();
+        double sample = Math.max(1, latencyNanos);
+
+        double shortAverage = average(shortLatency, sample, SHORT_WEIGHT);
+        double longAverage = average(longLatency, sample, LONG_WEIGHT);
+
+        // After a long slowdown the long average lags; pull it down so the
+        // limit can recover once latency is back
+        if (longAverage > shortAverage * 2) {
+            longLatency.getAndUpdate(bits -> Double.doubleToLongBits(Double.longBitsToDouble(bits) * 0.95));
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longAverage / shortAverage));
+
+        limitBits.getAndUpdate(bits -> {
+            double limit = Double.longBitsToDouble(bits);
+            // An idle limit says nothing about capacity, so only grow a busy one
+            if (gradient == 1.0 && inFlightBefore * 2 < limit) {
+                return bits;
+            }
+            double target = limit * gradient + Math.sqrt(limit);
+            return Double.doubleToLongBits(clamp(limit * (1 - smoothing) + target * smoothing));
+        });
+    }
+
+    int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+    private static double average(AtomicLong bits, double sample, double weight) {
+        long updated = bits.accumulateAndGet(Double.doubleToLongBits(sample), (current, s) -> {
+            double average = Double.longBitsToDouble(current);
+            double value = Double.longBitsToDouble(s);
+            return Double.doubleToLongBits(average == 0 ? value : average + (value - average) * weight);
+        });
+        return Double.longBitsToDouble(updated);
+    }
+}
@@ -0,0 +1,196 @@
+package com.bookstore.security;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.bookstore.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Load shedding in front of the controllers.
+ *
+ * Requests are split into lanes, each with its own {@link AdaptiveLimit}, so
+ * a burst of invoice exports cannot use up the capacity that catalog reads
+ * need. A request over its lane's limit is answered with 503 and
+ * Retry-After straight away rather than queued. Runs ahead of
+ * {@link JwtFilter} so shed requests do not pay for token parsing.
+ *
+ * Logins are CPU-bound on BCrypt and get a lane of their own, so they
+ * neither take checkout slots nor skew its latency. Intake long polls
+ * mostly wait, so their duration says nothing about load: their lane has a
+ * fixed limit that latency does not move.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum Lane {
+        BROWSE, CHECKOUT, AUTH, POLL, ADMIN
+    }
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final Map<Lane, AdaptiveLimit> limits = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> rejected = new EnumMap<>(Lane.class);
+
+    public ConcurrencyLimitFilter(@Value("${limiter.enabled:true}") boolean enabled,
+                                  @Value("${limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${limiter.min-limit:4}") int minLimit,
+                                  @Value("${limiter.browse.max-limit:200}") int browseMax,
+                                  @Value("${limiter.checkout.max-limit:100}") int checkoutMax,
+                                  @Value("${limiter.auth.max-limit:20}") int authMax,
+                                  @Value("${limiter.poll.max-limit:1000}") int pollMax,
+                                  @Value("${limiter.admin.max-limit:20}") int adminMax,
+                                  @Value("${limiter.latency-tolerance:2.0}") double tolerance,
+                                  @Value("${limiter.smoothing:0.2}") double smoothing,
+                                  @Value("${limiter.retry-after:1s}") Duration retryAfter,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.objectMapper = objectMapper;
+
+        Map<Lane, Integer> maxLimits = Map.of(Lane.BROWSE, browseMax, Lane.CHECKOUT, checkoutMax,
+                Lane.AUTH, authMax, Lane.POLL, pollMax, Lane.ADMIN, adminMax);
+
+        for (Lane lane : Lane.values()) {
+            int max = maxLimits.get(lane);
+            int min = lane == Lane.POLL ? max : Math.min(minLimit, max);
+            AdaptiveLimit limit = new AdaptiveLimit(initialLimit, min, max, tolerance, smoothing);
+            limits.put(lane, limit);
+
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("limiter.limit", limit, AdaptiveLimit::limit)
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("limiter.inflight", limit, AdaptiveLimit::inFlight)
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            rejected.put(lane, meterRegistry.counter("limiter.rejected", "lane", tag));
+        }
+    }
+
+    // Health and scrapes must answer even when everything else is shed
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getServletPath().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Lane lane = laneOf(request.getMethod(), request.getServletPath());
+        AdaptiveLimit limit = limits.get(lane);
+
+        if (!limit.tryAcquire()) {
+            rejected.get(lane).increment();
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // Streamed and deferred responses hold their slot until they complete
+                request.getAsyncContext().addListener(new Release(limit, start));
+            } else {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    static Lane laneOf(String method, String path) {
+
+        if (path.equals("/books") || path.startsWith("/books/")) {
+            return "GET".equals(method) || "HEAD".equals(method) ? Lane.BROWSE : Lane.ADMIN;
+        }
+        if (path.startsWith("/auth/")) {
+            return Lane.AUTH;
+        }
+        if (path.startsWith("/orders/intake/")) {
+            return Lane.POLL;
+        }
+        if ((path.equals("/orders") && "POST".equals(method)) || path.equals("/orders/my")) {
+            return Lane.CHECKOUT;
+        }
+        // Invoices, exports, status and payment updates, anything else
+        return Lane.ADMIN;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Server is busy, retry later"
+        );
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    AdaptiveLimit limit(Lane lane) {
+        return limits.get(lane);
+    }
+
+    private static final class Release implements AsyncListener {
+
+        private final AdaptiveLimit limit;
+        private final long start;
+
+        private Release(AdaptiveLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limit.release(System.nanoTime() - start);
+        }
+
+        // onComplete still follows a timeout or error, so nothing to do here
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
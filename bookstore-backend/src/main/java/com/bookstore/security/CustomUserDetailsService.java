@@ -11,19 +11,29 @@ import org.springframework.stereotype.Service;
 import com.bookstore.entity.User;
 import com.bookstore.repository.UserRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     public UserDetails loadUserByUsername(String email)
             throws UsernameNotFoundException {
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new UsernameNotFoundException("User not found"));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        User user = userRepository.findByEmail(email).orElse(null);
+        sample.stop(meterRegistry.timer("security.user.lookup", "result", user == null ? "missing" : "found"));
+
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
 
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
@@ -1,15 +1,24 @@
 package com.bookstore.security;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,7 +31,19 @@ public class JwtFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // When false, roles are always looked up (through the cache) instead of read from the token
+    @Value("${security.jwt.trust-role-claim:true}")
+    private boolean trustRoleClaim;
+
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -32,28 +53,21 @@ public class JwtFilter extends OncePerRequestFilter {
 
         String path = request.getServletPath();
 
-        // 🔥 IMPORTANT: Skip JWT check for auth endpoints
-        if (path.startsWith("/auth/")) {
+        // 🔥 IMPORTANT: Skip JWT check for the credential endpoints
+        // (logout and revoke do need the caller's token)
+        if (path.equals("/auth/login") || path.equals("/auth/register") || path.equals("/auth/refresh")) {
             filterChain.doFilter(request, response);
             return;
         }
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String email = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            email = jwtUtil.extractUsername(token);
-        }
 
-        if (email != null &&
+        if (authHeader != null && authHeader.startsWith("Bearer ") &&
             SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            UserDetails userDetails =
-                    userDetailsService.loadUserByUsername(email);
+            UserDetails userDetails = authenticate(authHeader.substring(7));
 
-            if (jwtUtil.validateToken(token, userDetails)) {
+            if (userDetails != null) {
 
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
@@ -62,9 +76,7 @@ public class JwtFilter extends OncePerRequestFilter {
                                 userDetails.getAuthorities()
                         );
 
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
+                authToken.setDetails(detailsSource.buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -73,4 +85,41 @@ public class JwtFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Parses the token once; signature and expiry are checked by the parser
+    private UserDetails authenticate(String token) {
+
+        Claims claims;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            claims = jwtUtil.parseClaims(token);
+            sample.stop(meterRegistry.timer("security.jwt.parse", "result", "valid"));
+        } catch (JwtException | IllegalArgumentException e) {
+            sample.stop(meterRegistry.timer("security.jwt.parse", "result", "invalid"));
+            return null;
+        }
+
+        // Bloom filter miss on the usual path: no allocation, no lock
+        if (tokenDenylist.isRevoked(claims.getId())) {
+            return null;
+        }
+
+        String email = claims.getSubject();
+        if (email == null) {
+            return null;
+        }
+
+        List<String> roles = trustRoleClaim ? jwtUtil.extractRoles(claims) : null;
+
+        if (roles != null) {
+            return new User(email, "", AuthorityUtils.createAuthorityList(roles));
+        }
+
+        // Older tokens without a roles claim fall back to the cached user lookup
+        try {
+            return userDetailsCache.get(email);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
 }
@@ -0,0 +1,69 @@
+package com.bookstore.security;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Small, bounded pool for BCrypt work (login checks and registration).
+ *
+ * Each hash costs tens of milliseconds of CPU. Running them here rather
+ * than on request threads caps how many cores a login storm can take, and
+ * frees the request thread while the hash runs. Work beyond the queue is
+ * refused with {@link ServiceBusyException} (503) instead of piling up.
+ */
+@Component
+public class PasswordHashExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+
+    public PasswordHashExecutor(@Value("${auth.password.threads:2}") int threads,
+                                @Value("${auth.password.queue-capacity:100}") int queueCapacity,
+                                @Value("${auth.password.retry-after:1s}") Duration retryAfter,
+                                MeterRegistry meterRegistry) {
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        meterRegistry.gauge("auth.password.queue", executor.getQueue(), BlockingQueue::size);
+        this.rejected = meterRegistry.counter("auth.password.rejected");
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new ServiceBusyException("Too many logins in progress, retry later", retryAfterSeconds));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
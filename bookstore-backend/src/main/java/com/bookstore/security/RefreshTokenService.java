@@ -0,0 +1,131 @@
+package com.bookstore.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.entity.RefreshToken;
+import com.bookstore.repository.RefreshTokenRepository;
+
+/**
+ * Long-lived, revocable refresh tokens.
+ *
+ * A token is 256 random bits handed to the client once; the table keeps
+ * only its SHA-256, so renewing access is one indexed lookup rather than a
+ * BCrypt check. Each token can be exchanged once: {@link #rotate} revokes
+ * it and issues the next one in the same family. A revoked token that
+ * comes back means a copy is in someone else's hands, so the whole family
+ * is revoked and that login has to start over.
+ */
+@Component
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${auth.refresh.ttl:30d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+
+    // Starts a new family, once per login
+    public String issue(String userEmail) {
+        return issue(userEmail, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for the next one in its family. Throws
+     * {@link BadCredentialsException} for an unknown, expired or reused token.
+     */
+    public Rotation rotate(String token) {
+
+        RefreshToken current = find(token);
+
+        if (current.isRevoked() || refreshTokenRepository.revoke(current.getId()) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new BadCredentialsException("Refresh token was already used");
+        }
+        if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadCredentialsException("Refresh token has expired");
+        }
+
+        return new Rotation(current.getUserEmail(), issue(current.getUserEmail(), current.getFamilyId()));
+    }
+
+    // Logout: ends the session the token belongs to
+    public void revoke(String token) {
+        refreshTokenRepository.revokeFamily(find(token).getFamilyId());
+    }
+
+    // Revoked tokens are kept until they expire so reuse is still detected
+    @Scheduled(fixedDelayString = "${auth.refresh.purge-interval:PT1H}",
+            initialDelayString = "${auth.refresh.purge-interval:PT1H}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+    }
+
+    private String issue(String userEmail, String familyId) {
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUserEmail(userEmail);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setExpiresAt(LocalDateTime.now().plus(ttl));
+        refreshTokenRepository.save(refreshToken);
+
+        return token;
+    }
+
+    private RefreshToken find(String token) {
+        if (token == null || token.isBlank()) {
+            throw new BadCredentialsException("Refresh token is required");
+        }
+        return refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Rotation {
+
+        private final String userEmail;
+        private final String token;
+
+        private Rotation(String userEmail, String token) {
+            this.userEmail = userEmail;
+            this.token = token;
+        }
+
+        public String getUserEmail() {
+            return userEmail;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.bookstore.security;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,9 +19,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
 
-    public SecurityConfig(JwtFilter jwtFilter) {
+    public SecurityConfig(JwtFilter jwtFilter, ConcurrencyLimitFilter concurrencyLimitFilter) {
         this.jwtFilter = jwtFilter;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
     }
 
     @Bean
@@ -36,6 +40,11 @@ public class SecurityConfig {
 
             .authorizeHttpRequests(auth -> auth
 
+                // ================= ASYNC DISPATCH =================
+                // Streamed invoices finish on an async dispatch, after the
+                // request itself was authorized; the JWT filter does not rerun
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // ================= SWAGGER =================
                 .requestMatchers(
                         "/swagger-ui/**",
@@ -43,6 +52,11 @@ public class SecurityConfig {
                         "/v3/api-docs/**"
                 ).permitAll()
 
+                // ================= ACTUATOR =================
+                // Health and the Prometheus scrape, served only on management.server.port;
+                // the application port does not map them
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+
                 // ================= AUTH =================
                 .requestMatchers("/auth/**").permitAll()
 
@@ -55,7 +69,10 @@ public class SecurityConfig {
             )
 
             // Add JWT filter
-            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+
+            // Shed load before any token is parsed
+            .addFilterBefore(concurrencyLimitFilter, JwtFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,184 @@
+package com.bookstore.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.entity.RevokedToken;
+import com.bookstore.repository.RevokedTokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Access tokens revoked before they expire, by {@code jti}.
+ *
+ * Ids are kept in sets bucketed by expiry time, so a sweep drops whole
+ * buckets once their tokens have expired anyway. A Bloom filter sits in
+ * front: most tokens were never revoked, and for those
+ * {@link #isRevoked} reads a few bits and returns without allocating or
+ * taking a lock. The filter cannot forget ids, so each sweep rebuilds it
+ * from the buckets that are left.
+ *
+ * Revocations are also written to the {@code revoked_token} table and
+ * reloaded at startup. Other instances only pick them up when they start.
+ */
+@Component
+public class TokenDenylist {
+
+    private static final int HASHES = 4;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long bucketMillis;
+    private final int bloomBits;
+    private final ConcurrentMap<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+    private final Counter falsePositives;
+    // A lock rather than synchronized, which pins virtual threads to their carrier
+    private final Lock writeLock = new ReentrantLock();
+
+    // Replaced as a whole by each sweep; bits are only ever set in place
+    private volatile AtomicLongArray bloom;
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository,
+                         @Value("${security.revocation.bucket:1m}") Duration bucket,
+                         @Value("${security.revocation.bloom-bits:1048576}") int bloomBits,
+                         MeterRegistry meterRegistry) {
+
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bucketMillis = bucket.toMillis();
+        // A power of two, so a hash is reduced to a bit index with a mask
+        this.bloomBits = Integer.highestOneBit(Math.max(64, bloomBits));
+        this.bloom = new AtomicLongArray(this.bloomBits / 64);
+
+        meterRegistry.gauge("security.revoked.tokens", buckets,
+                b -> b.values().stream().mapToInt(Set::size).sum());
+        this.falsePositives = meterRegistry.counter("security.revocation.false.positive");
+    }
+
+    @PostConstruct
+    void load() {
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            add(token.getJti(), token.getExpiresAt().atZone(ZONE).toInstant().toEpochMilli());
+        }
+    }
+
+    // Runs on every authenticated request
+    public boolean isRevoked(String jti) {
+
+        if (jti == null || !mightContain(bloom, jti)) {
+            return false;
+        }
+
+        for (Set<String> ids : buckets.values()) {
+            if (ids.contains(jti)) {
+                return true;
+            }
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    public void revoke(String jti, String userEmail, Instant expiresAt) {
+
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+
+        RevokedToken token = new RevokedToken();
+        token.setJti(jti);
+        token.setUserEmail(userEmail);
+        token.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZONE));
+        revokedTokenRepository.save(token);
+
+        add(jti, expiresAt.toEpochMilli());
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.sweep-interval:PT1M}",
+            initialDelayString = "${security.revocation.sweep-interval:PT1M}")
+    public void sweep() {
+        expire(System.currentTimeMillis());
+        revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+    }
+
+    // Writers are rare and serialized so a rebuild cannot drop a concurrent add
+    void add(String jti, long expiresAtMillis) {
+        writeLock.lock();
+        try {
+            buckets.computeIfAbsent(bucketOf(expiresAtMillis), b -> ConcurrentHashMap.newKeySet()).add(jti);
+            put(bloom, jti);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void expire(long nowMillis) {
+
+        writeLock.lock();
+        try {
+            buckets.keySet().removeIf(bucket -> bucket * bucketMillis <= nowMillis);
+
+            AtomicLongArray rebuilt = new AtomicLongArray(bloomBits / 64);
+            for (Map.Entry<Long, Set<String>> entry : buckets.entrySet()) {
+                for (String jti : entry.getValue()) {
+                    put(rebuilt, jti);
+                }
+            }
+            bloom = rebuilt;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // A bucket is dropped once its end has passed, i.e. all of its tokens have expired
+    private long bucketOf(long expiresAtMillis) {
+        return Math.floorDiv(expiresAtMillis, bucketMillis) + 1;
+    }
+
+    private void put(AtomicLongArray bits, String jti) {
+        long hash = hash(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & (bloomBits - 1);
+            long mask = 1L << bit;
+            bits.getAndUpdate(bit >>> 6, word -> word | mask);
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray bits, String jti) {
+        long hash = hash(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & (bloomBits - 1);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a over the characters; no copy of the string is made
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
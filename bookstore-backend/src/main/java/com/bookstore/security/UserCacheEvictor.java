@@ -0,0 +1,47 @@
+package com.bookstore.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bookstore.entity.User;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener on {@link User} that drops the user from
+ * {@link UserDetailsCache} when the row is updated or deleted, so a role
+ * change or a removed account takes effect on the next request.
+ *
+ * Inside a transaction the user is evicted again once it completes, so a
+ * copy of the old row loaded in the meantime does not linger.
+ */
+@Component
+public class UserCacheEvictor {
+
+    // Lazy: Hibernate creates this listener while the EntityManagerFactory
+    // that UserDetailsCache depends on is still being built
+    @Lazy
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+
+        String email = user.getEmail();
+        userDetailsCache.evict(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    userDetailsCache.evict(email);
+                }
+            });
+        }
+    }
+}
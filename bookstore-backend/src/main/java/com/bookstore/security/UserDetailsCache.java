@@ -0,0 +1,57 @@
+package com.bookstore.security;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded, time-expiring cache in front of {@link CustomUserDetailsService}.
+ *
+ * Used by {@link JwtFilter} for tokens that do not carry their roles, so
+ * those requests do not hit the users table every time either.
+ *
+ * Users updated or deleted through JPA are evicted by
+ * {@link UserCacheEvictor}. A change made directly in the database is seen
+ * once {@code security.user-cache.ttl} has passed. Tokens that carry their
+ * roles keep them until they expire, unless revoked through /auth/revoke.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> cache;
+
+    public UserDetailsCache(CustomUserDetailsService userDetailsService,
+                            @Value("${security.user-cache.max-size:10000}") long maxSize,
+                            @Value("${security.user-cache.ttl:5m}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Loads outside the cache: Caffeine's get(key, loader) would run the JDBC
+    // call under a map bin lock, which pins a virtual thread to its carrier
+    public UserDetails get(String email) throws UsernameNotFoundException {
+
+        UserDetails cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
+
+        UserDetails loaded = userDetailsService.loadUserByUsername(email);
+        cache.put(email, loaded);
+        return loaded;
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+}
@@ -0,0 +1,157 @@
+package com.bookstore.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of books by id, used by {@code GET /books/{id}} and to
+ * load search result pages.
+ *
+ * Entries are evicted whenever this node writes a book, stock included, and
+ * expire after {@code catalog.cache.ttl} to bound staleness from writes made
+ * elsewhere. Each entry remembers when it was loaded so callers can report
+ * its age.
+ *
+ * A load that overlaps an eviction is not cached: evictions bump a write
+ * epoch, and a loaded book is only stored if the epoch has not moved since
+ * the load started.
+ */
+@Component
+public class BookCache {
+
+    private final BookRepository bookRepository;
+    private final CatalogVersions catalogVersions;
+    private final Cache<Long, CachedBook> cache;
+    private final AtomicLong writeEpoch = new AtomicLong();
+    private final Timer loadTimer;
+
+    public BookCache(BookRepository bookRepository,
+                     CatalogVersions catalogVersions,
+                     @Value("${catalog.cache.max-size:50000}") long maxSize,
+                     @Value("${catalog.cache.ttl:10m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+
+        this.bookRepository = bookRepository;
+        this.catalogVersions = catalogVersions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books");
+        Gauge.builder("catalog.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .register(meterRegistry);
+        this.loadTimer = meterRegistry.timer("catalog.cache.load");
+    }
+
+    public Optional<CachedBook> get(Long id) {
+
+        CachedBook cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Map<Long, CachedBook> loaded = load(List.of(id));
+        return Optional.ofNullable(loaded.get(id));
+    }
+
+    /**
+     * Looks up every id, loading the misses with one query. Ids without a
+     * book are left out of the result.
+     */
+    public Map<Long, Book> getAll(Collection<Long> ids) {
+
+        Map<Long, Book> books = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long id : ids) {
+            CachedBook cached = cache.getIfPresent(id);
+            if (cached != null) {
+                books.put(id, cached.getBook());
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            load(missing).forEach((id, cached) -> books.put(id, cached.getBook()));
+        }
+        return books;
+    }
+
+    // Call once the write is committed. Versions move only after the entries
+    // are gone, so a new ETag is never served with an old cached book.
+    public void evict(Collection<Long> ids) {
+        writeEpoch.incrementAndGet();
+        cache.invalidateAll(ids);
+        catalogVersions.booksChanged(ids);
+    }
+
+    public void evict(Long id) {
+        evict(List.of(id));
+    }
+
+    public void evictAll() {
+        writeEpoch.incrementAndGet();
+        cache.invalidateAll();
+        catalogVersions.allBooksChanged();
+    }
+
+    private Map<Long, CachedBook> load(List<Long> ids) {
+
+        long epoch = writeEpoch.get();
+        List<Book> books = loadTimer.record(() -> bookRepository.findAllById(ids));
+        long loadedAt = System.nanoTime();
+
+        Map<Long, CachedBook> loaded = new HashMap<>();
+        for (Book book : books) {
+            CachedBook cached = new CachedBook(book, loadedAt);
+            loaded.put(book.getId(), cached);
+
+            // compute holds the entry's lock, so an eviction cannot slip in
+            // between the epoch check and the store
+            cache.asMap().compute(book.getId(),
+                    (id, current) -> writeEpoch.get() == epoch ? cached : current);
+        }
+        return loaded;
+    }
+
+    public static class CachedBook {
+
+        private final Book book;
+        private final long loadedAt;
+
+        private CachedBook(Book book, long loadedAt) {
+            this.book = book;
+            this.loadedAt = loadedAt;
+        }
+
+        public Book getBook() {
+            return book;
+        }
+
+        public long getAgeSeconds() {
+            return Duration.ofNanos(System.nanoTime() - loadedAt).toSeconds();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.bookstore.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.dto.ImportReport;
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookBatchRepository;
+import com.bookstore.search.CatalogSearchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk catalog import from CSV or NDJSON.
+ *
+ * The body is read line by line and written in batches of
+ * {@code catalog.import.batch-size}, so memory stays flat whatever the file
+ * size. Bad rows are reported by line number and never stop the import; if
+ * a batch is rejected by the database it is retried row by row to find the
+ * culprit.
+ *
+ * Rows are matched by id only. A row with an id updates that book, and is
+ * reported as an error if there is none; a row without an id is always
+ * inserted. Books have no natural key (titles and authors repeat), so
+ * re-importing a file without ids adds its books again: suppliers that
+ * re-send their catalog must send the ids they were given.
+ *
+ * Each committed batch is applied to the search index and evicts the
+ * updated books from {@link BookCache}; the new ones were never cached.
+ */
+@Service
+public class BookImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String[] COLUMNS = {"title", "author", "genre", "price", "stock"};
+
+    @Autowired
+    private BookBatchRepository bookBatchRepository;
+
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ImportReport importBooks(InputStream in, Format format) throws IOException {
+
+        ImportReport report = new ImportReport(maxErrors);
+        List<Row> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<String, Integer> header = null;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (line.isBlank()) {
+                continue;
+            }
+
+            if (format == Format.CSV && header == null) {
+                header = parseHeader(line);
+                continue;
+            }
+
+            try {
+                Book book = format == Format.CSV ? fromCsv(line, header) : fromJson(line);
+                validate(book);
+                batch.add(new Row(lineNumber, book));
+            } catch (IllegalArgumentException e) {
+                report.addError(lineNumber, e.getMessage());
+            }
+
+            if (batch.size() == batchSize) {
+                flush(batch, report);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            flush(batch, report);
+        }
+        return report;
+    }
+
+    // ================= WRITES =================
+
+    private void flush(List<Row> batch, ImportReport report) {
+        try {
+            record(transactionTemplate.execute(status -> write(batch)), report);
+        } catch (DataAccessException e) {
+            // Nothing from the batch was kept; find the rows the database rejects
+            for (Row row : batch) {
+                try {
+                    record(write(List.of(row)), report);
+                } catch (DataAccessException rowFailure) {
+                    report.addError(row.line, "Rejected by database: " + rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    private Written write(List<Row> rows) {
+
+        List<Book> inserts = new ArrayList<>();
+        List<Row> updates = new ArrayList<>();
+
+        for (Row row : rows) {
+            if (row.book.getId() == null) {
+                inserts.add(row.book);
+            } else {
+                updates.add(row);
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            bookBatchRepository.insertAll(inserts);
+        }
+
+        boolean[] found = updates.isEmpty()
+                ? new boolean[0]
+                : bookBatchRepository.updateAll(updates.stream().map(row -> row.book).toList());
+
+        return new Written(inserts, updates, found);
+    }
+
+    // Only called once the rows are committed
+    private void record(Written written, ImportReport report) {
+
+        report.addInserted(written.inserts.size());
+
+        List<Book> updated = new ArrayList<>(written.found.length);
+        for (int i = 0; i < written.found.length; i++) {
+            Row row = written.updates.get(i);
+            if (written.found[i]) {
+                updated.add(row.book);
+            } else {
+                report.addError(row.line, "Book not found with id: " + row.book.getId());
+            }
+        }
+        report.addUpdated(updated.size());
+
+        catalogSearchService.booksSaved(written.inserts);
+        catalogSearchService.booksSaved(updated);
+        if (!updated.isEmpty()) {
+            bookCache.evict(updated.stream().map(Book::getId).toList());
+        }
+        if (!written.inserts.isEmpty()) {
+            catalogVersions.catalogChanged();
+        }
+    }
+
+    // ================= PARSING =================
+
+    private static Map<String, Integer> parseHeader(String line) {
+
+        List<String> names = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        for (String column : COLUMNS) {
+            if (!header.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + column);
+            }
+        }
+        return header;
+    }
+
+    private static Book fromCsv(String line, Map<String, Integer> header) {
+
+        List<String> cells = splitCsv(line);
+        if (cells.size() != header.size()) {
+            throw new IllegalArgumentException(
+                    "Expected " + header.size() + " columns but found " + cells.size());
+        }
+
+        Integer idColumn = header.get("id");
+        String id = idColumn == null ? "" : cells.get(idColumn).trim();
+
+        return new Book(
+                id.isEmpty() ? null : parseLong("id", id),
+                cells.get(header.get("title")).trim(),
+                cells.get(header.get("author")).trim(),
+                cells.get(header.get("genre")).trim(),
+                parseDouble("price", cells.get(header.get("price")).trim()),
+                parseInt("stock", cells.get(header.get("stock")).trim()));
+    }
+
+    private Book fromJson(String line) {
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+
+        return new Book(
+                node.hasNonNull("id") ? parseLong("id", node.get("id").asText()) : null,
+                text(node, "title"),
+                text(node, "author"),
+                text(node, "genre"),
+                parseDouble("price", text(node, "price")),
+                parseInt("stock", text(node, "stock")));
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText().trim() : "";
+    }
+
+    private static void validate(Book book) {
+        if (book.getTitle().isEmpty()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        if (book.getPrice() < 0) {
+            throw new IllegalArgumentException("price must not be negative");
+        }
+        if (book.getStock() < 0) {
+            throw new IllegalArgumentException("stock must not be negative");
+        }
+    }
+
+    // RFC 4180 quoting, within a single line
+    static List<String> splitCsv(String line) {
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static long parseLong(String field, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + value);
+        }
+    }
+
+    private static int parseInt(String field, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + value);
+        }
+    }
+
+    private static double parseDouble(String field, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private static class Row {
+
+        private final long line;
+        private final Book book;
+
+        private Row(long line, Book book) {
+            this.line = line;
+            this.book = book;
+        }
+    }
+
+    private static class Written {
+
+        private final List<Book> inserts;
+        private final List<Row> updates;
+        private final boolean[] found;
+
+        private Written(List<Book> inserts, List<Row> updates, boolean[] found) {
+            this.inserts = inserts;
+            this.updates = updates;
+            this.found = found;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bookstore.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Passes every byte through to the target stream, and on the way writes
+ * them to an optional copy stream (the disk tier's file) and keeps the first
+ * {@code limit} bytes in a buffer. Once the limit is exceeded the buffer is
+ * dropped, so large documents stream without being held on the heap.
+ *
+ * A failing copy stream is abandoned; the target stream never sees its
+ * errors.
+ */
+class CapturingOutputStream extends FilterOutputStream {
+
+    private final int limit;
+    private final OutputStream copy;
+    private byte[] buffer;
+    private int count;
+    private long written;
+    private boolean copyFailed;
+
+    CapturingOutputStream(OutputStream out, int limit, OutputStream copy) {
+        super(out);
+        this.limit = limit;
+        this.copy = copy;
+        this.buffer = limit > 0 ? new byte[Math.min(limit, 8192)] : null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        written++;
+        if (copy != null && !copyFailed) {
+            try {
+                copy.write(b);
+            } catch (IOException e) {
+                copyFailed = true;
+            }
+        }
+        if (ensureCapacity(1)) {
+            buffer[count++] = (byte) b;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        written += len;
+        if (copy != null && !copyFailed) {
+            try {
+                copy.write(b, off, len);
+            } catch (IOException e) {
+                copyFailed = true;
+            }
+        }
+        if (ensureCapacity(len)) {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+    }
+
+    /**
+     * The capture buffer, not a copy; only the first {@link #capturedLength}
+     * bytes are the document. Null when the output was larger than the limit.
+     */
+    byte[] captured() {
+        return buffer;
+    }
+
+    int capturedLength() {
+        return count;
+    }
+
+    // False once the copy stream has failed; its file must not be used
+    boolean copyComplete() {
+        return copy != null && !copyFailed;
+    }
+
+    // Bytes passed through, captured or not
+    long size() {
+        return written;
+    }
+
+    // Grows the buffer up to the limit; false (and the buffer dropped) beyond it
+    private boolean ensureCapacity(int len) {
+
+        if (buffer == null) {
+            return false;
+        }
+        if (count + len > limit) {
+            buffer = null;
+            return false;
+        }
+        if (count + len > buffer.length) {
+            buffer = Arrays.copyOf(buffer, (int) Math.min(limit, Math.max(buffer.length * 2L, count + len)));
+        }
+        return true;
+    }
+}
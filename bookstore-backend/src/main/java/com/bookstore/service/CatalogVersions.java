@@ -0,0 +1,70 @@
+package com.bookstore.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory version counters behind the catalog ETags.
+ *
+ * Each book has its own counter, and the catalog counter moves whenever any
+ * book does. Every tag also carries the start time of this instance, so
+ * tags issued before a restart never match. The counters are moved by
+ * {@link BookCache} when it evicts, i.e. after the write has committed.
+ *
+ * The counters belong to this node and only see its own writes. A write on
+ * another instance or straight to the database does not move them, so every
+ * tag also carries the current {@code catalog.etag.window}: a tag stops
+ * matching when its window ends, and a client is told "not modified" about
+ * someone else's change for at most that long. Local writes still change
+ * the tag at once.
+ */
+@Component
+public class CatalogVersions {
+
+    private final long bootId = System.currentTimeMillis();
+    private final long windowMillis;
+    private final AtomicLong catalog = new AtomicLong();
+    private final AtomicLong allBooks = new AtomicLong();
+    private final ConcurrentMap<Long, AtomicLong> books = new ConcurrentHashMap<>();
+
+    public CatalogVersions(@Value("${catalog.etag.window:1m}") Duration window) {
+        this.windowMillis = Math.max(1, window.toMillis());
+    }
+
+    public String bookETag(Long bookId) {
+        AtomicLong version = books.get(bookId);
+        return "\"b" + bootId + "-" + window() + "-" + bookId + "-" + allBooks.get() + "."
+                + (version == null ? 0 : version.get()) + "\"";
+    }
+
+    public String catalogETag() {
+        return "\"c" + bootId + "-" + window() + "-" + catalog.get() + "\"";
+    }
+
+    void booksChanged(Collection<Long> bookIds) {
+        for (Long bookId : bookIds) {
+            books.computeIfAbsent(bookId, id -> new AtomicLong()).incrementAndGet();
+        }
+        catalog.incrementAndGet();
+    }
+
+    // Books were added: lists and searches change, no existing book does
+    void catalogChanged() {
+        catalog.incrementAndGet();
+    }
+
+    void allBooksChanged() {
+        allBooks.incrementAndGet();
+        catalog.incrementAndGet();
+    }
+
+    private long window() {
+        return System.currentTimeMillis() / windowMillis;
+    }
+}
@@ -0,0 +1,189 @@
+package com.bookstore.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.repository.BookStockRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Single-writer stock engine for hot books.
+ *
+ * Every stock change for a book id is queued on that book's lane. A lane is
+ * drained by at most one thread at a time, which folds the queued requests
+ * into one net UPDATE, so concurrent buyers of the same book no longer queue
+ * up on its row lock.
+ */
+@Component
+public class InventoryEngine {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final BookStockRepository bookStockRepository;
+    private final int batchSize;
+    private final ExecutorService drainers;
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    public InventoryEngine(BookStockRepository bookStockRepository,
+                           @Value("${inventory.engine.batch-size:256}") int batchSize,
+                           @Value("${inventory.engine.threads:4}") int threads) {
+        this.bookStockRepository = bookStockRepository;
+        this.batchSize = batchSize;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.drainers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Takes stock; completes with REJECTED when not enough is left
+    public CompletableFuture<ReservationResult> reserve(Long bookId, int quantity) {
+        return submit(bookId, quantity);
+    }
+
+    // Gives stock back; always completes with RESERVED once applied
+    public CompletableFuture<ReservationResult> release(Long bookId, int quantity) {
+        return submit(bookId, -quantity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainers.shutdown();
+    }
+
+    private CompletableFuture<ReservationResult> submit(Long bookId, int quantity) {
+
+        Change change = new Change(quantity);
+        Lane lane = lanes.computeIfAbsent(bookId, Lane::new);
+
+        lane.queue.add(change);
+        schedule(lane);
+
+        return change.result;
+    }
+
+    private void schedule(Lane lane) {
+        if (lane.scheduled.compareAndSet(false, true)) {
+            drainers.execute(() -> drain(lane));
+        }
+    }
+
+    private void drain(Lane lane) {
+
+        List<Change> batch = new ArrayList<>(batchSize);
+        Change change;
+
+        while (batch.size() < batchSize && (change = lane.queue.poll()) != null) {
+            batch.add(change);
+        }
+
+        try {
+            apply(lane.bookId, batch);
+        } catch (RuntimeException e) {
+            batch.forEach(c -> c.result.completeExceptionally(e));
+        }
+
+        lane.scheduled.set(false);
+
+        // Requests that arrived while draining get their own pass; yielding
+        // the thread between batches keeps one hot lane from starving the rest
+        if (!lane.queue.isEmpty()) {
+            schedule(lane);
+        }
+    }
+
+    private void apply(Long bookId, List<Change> batch) {
+
+        int released = 0;
+        int demanded = 0;
+
+        for (Change change : batch) {
+            if (change.quantity < 0) {
+                released -= change.quantity;
+            } else {
+                demanded += change.quantity;
+            }
+        }
+
+        // Fast path: the whole batch fits
+        if (bookStockRepository.decrementStock(bookId, demanded - released)) {
+            batch.forEach(c -> c.result.complete(ReservationResult.RESERVED));
+            return;
+        }
+
+        // Slow path: admit requests in arrival order while they still fit
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+
+            Integer stock = bookStockRepository.findStock(bookId);
+            if (stock == null) {
+                break;
+            }
+
+            int available = stock + released;
+            int admitted = 0;
+            boolean[] accepted = new boolean[batch.size()];
+
+            for (int i = 0; i < batch.size(); i++) {
+                int quantity = batch.get(i).quantity;
+                if (quantity < 0 || admitted + quantity <= available) {
+                    admitted += Math.max(quantity, 0);
+                    accepted[i] = true;
+                }
+            }
+
+            if (bookStockRepository.decrementStock(bookId, admitted - released)) {
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(accepted[i]
+                            ? ReservationResult.RESERVED
+                            : ReservationResult.REJECTED);
+                }
+                return;
+            }
+            // Stock moved underneath us (e.g. an admin edit); read it again
+        }
+
+        // Out of attempts: refuse the reservations, but returned stock must never be dropped
+        if (released > 0) {
+            bookStockRepository.decrementStock(bookId, -released);
+        }
+        batch.forEach(c -> c.result.complete(c.quantity < 0
+                ? ReservationResult.RESERVED
+                : ReservationResult.REJECTED));
+    }
+
+    private static final class Lane {
+
+        private final Long bookId;
+        private final Queue<Change> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(Long bookId) {
+            this.bookId = bookId;
+        }
+    }
+
+    private static final class Change {
+
+        private final int quantity;
+        private final CompletableFuture<ReservationResult> result = new CompletableFuture<>();
+
+        private Change(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.bookstore.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookstore.entity.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Rendered invoice PDFs keyed by order id and a version of the order's state.
+ *
+ * The in-memory tier is bounded by total bytes and evicts with Caffeine's
+ * W-TinyLFU policy. When {@code invoice.cache.disk-dir} is set, rendered
+ * invoices are also written there and survive restarts; that tier is capped
+ * at {@code invoice.cache.disk-max-bytes} and drops its least recently used
+ * files first. An entry is dropped when the order changes, and a stale
+ * version is never served either way.
+ */
+@Component
+public class InvoiceCache {
+
+    private final Cache<Long, CachedInvoice> cache;
+    private final int maxEntryBytes;
+    private final Path diskDir;
+    private final long maxDiskBytes;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final Lock trimLock = new ReentrantLock();
+    private final Counter diskHits;
+    private final Counter diskMisses;
+    private final Timer renderTimer;
+    private final DistributionSummary renderedSize;
+
+    public InvoiceCache(@Value("${invoice.cache.max-bytes:67108864}") long maxBytes,
+                        @Value("${invoice.cache.max-entry-bytes:1048576}") int maxEntryBytes,
+                        @Value("${invoice.cache.disk-dir:}") String diskDir,
+                        @Value("${invoice.cache.disk-max-bytes:1073741824}") long maxDiskBytes,
+                        MeterRegistry meterRegistry) {
+
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, CachedInvoice invoice) -> invoice.pdf.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "invoices");
+
+        this.diskDir = diskDir.isBlank() ? null : Paths.get(diskDir);
+        if (this.diskDir != null) {
+            try {
+                Files.createDirectories(this.diskDir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create invoice cache directory", e);
+            }
+            trimDisk();
+        }
+
+        this.diskHits = meterRegistry.counter("invoice.cache.disk", "result", "hit");
+        this.diskMisses = meterRegistry.counter("invoice.cache.disk", "result", "miss");
+        meterRegistry.gauge("invoice.cache.disk.bytes", diskBytes);
+        this.renderTimer = meterRegistry.timer("invoice.render");
+        this.renderedSize = DistributionSummary.builder("invoice.size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the invoice for {@code order} to {@code out}: from memory or disk
+     * when a fresh copy exists, otherwise by rendering straight into
+     * {@code out}. While it renders, the bytes are also written through to
+     * the disk tier, and kept in memory only if they fit in
+     * {@code invoice.cache.max-entry-bytes}.
+     *
+     * Renders are timed as {@code invoice.render} and sized as
+     * {@code invoice.size}. The PDF streams straight out, so the time
+     * includes writing to the client.
+     */
+    public void write(Order order, OutputStream out, InvoiceRenderer renderer) throws IOException {
+
+        String version = version(order);
+
+        CachedInvoice cached = cache.getIfPresent(order.getId());
+        if (cached != null && cached.version.equals(version)) {
+            out.write(cached.pdf, 0, cached.length);
+            return;
+        }
+
+        if (copyFromDisk(order.getId(), version, out)) {
+            return;
+        }
+
+        Path tmp = createDiskCopy();
+        OutputStream disk = tmp == null ? null : openQuietly(tmp);
+        boolean rendered = false;
+        try {
+            CapturingOutputStream capture = new CapturingOutputStream(out, maxEntryBytes, disk);
+            long started = System.nanoTime();
+            renderer.render(capture);
+            renderTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            renderedSize.record(capture.size());
+
+            if (capture.captured() != null) {
+                cache.put(order.getId(), new CachedInvoice(version, capture.captured(), capture.capturedLength()));
+            }
+            rendered = capture.copyComplete();
+        } finally {
+            if (closeQuietly(disk) && rendered) {
+                keepDiskCopy(tmp, order.getId(), version);
+            } else {
+                deleteQuietly(tmp);
+            }
+        }
+    }
+
+    public void invalidate(Long orderId) {
+
+        cache.invalidate(orderId);
+
+        if (diskDir == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(diskDir, "invoice_" + orderId + "_*.pdf")) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                if (Files.deleteIfExists(file)) {
+                    diskBytes.addAndGet(-size);
+                }
+            }
+        } catch (IOException e) {
+            // a leftover file is harmless: its version no longer matches
+        }
+    }
+
+    // Everything printed on the invoice that can change after the order is placed, as
+    // plain text: stable across restarts and free of hash collisions
+    static String version(Order order) {
+        return order.getOrderStatus() + "-" + order.getPaymentStatus() + "-" + order.getTotalAmount();
+    }
+
+    private boolean copyFromDisk(Long orderId, String version, OutputStream out) throws IOException {
+
+        if (diskDir == null) {
+            return false;
+        }
+
+        Path file = diskDir.resolve(fileName(orderId, version));
+        if (!Files.isReadable(file)) {
+            diskMisses.increment();
+            return false;
+        }
+
+        Files.copy(file, out);
+        diskHits.increment();
+        touch(file);
+        return true;
+    }
+
+    // Temporary file the render is written through to; null without a disk tier or when it cannot be created
+    private Path createDiskCopy() {
+
+        if (diskDir == null) {
+            return null;
+        }
+        try {
+            return Files.createTempFile(diskDir, "invoice_", ".tmp");
+        } catch (IOException e) {
+            // the disk tier is best effort
+            return null;
+        }
+    }
+
+    private static OutputStream openQuietly(Path tmp) {
+        try {
+            return new BufferedOutputStream(Files.newOutputStream(tmp));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // True when the copy was flushed to its file
+    private static boolean closeQuietly(OutputStream disk) {
+
+        if (disk == null) {
+            return false;
+        }
+        try {
+            disk.close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void keepDiskCopy(Path tmp, Long orderId, String version) {
+
+        long size;
+        try {
+            size = Files.size(tmp);
+            Files.move(tmp, diskDir.resolve(fileName(orderId, version)),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the disk tier is best effort; the memory tier may still have the entry
+            deleteQuietly(tmp);
+            return;
+        }
+
+        if (diskBytes.addAndGet(size) > maxDiskBytes) {
+            trimDisk();
+        }
+    }
+
+    /**
+     * Recounts the disk tier and, when it is over its cap, deletes the least
+     * recently used files until it is back under 90% of it. One caller trims
+     * at a time; the others skip it.
+     */
+    private void trimDisk() {
+
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            List<DiskFile> files = new ArrayList<>();
+            long total = 0;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(diskDir, "invoice_*.pdf")) {
+                for (Path file : stream) {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    files.add(new DiskFile(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    total += attributes.size();
+                }
+            }
+
+            if (total > maxDiskBytes) {
+                files.sort(Comparator.comparingLong(file -> file.lastUsed));
+                long target = maxDiskBytes / 10 * 9;
+                for (DiskFile file : files) {
+                    if (total <= target) {
+                        break;
+                    }
+                    if (Files.deleteIfExists(file.path)) {
+                        total -= file.size;
+                    }
+                }
+            }
+            diskBytes.set(total);
+        } catch (IOException e) {
+            // best effort; the next write over the cap tries again
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    // A hit marks the file as recently used, so trimming keeps it
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // only affects which files a trim removes first
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // nothing else to do
+        }
+    }
+
+    private static String fileName(Long orderId, String version) {
+        return "invoice_" + orderId + "_" + version + ".pdf";
+    }
+
+    @FunctionalInterface
+    public interface InvoiceRenderer {
+        void render(OutputStream out) throws IOException;
+    }
+
+    private static final class DiskFile {
+
+        private final Path path;
+        private final long size;
+        private final long lastUsed;
+
+        private DiskFile(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    // The capture buffer as it was left, not copied; only the first length bytes are the PDF
+    private static final class CachedInvoice {
+
+        private final String version;
+        private final byte[] pdf;
+        private final int length;
+
+        private CachedInvoice(String version, byte[] pdf, int length) {
+            this.version = version;
+            this.pdf = pdf;
+            this.length = length;
+        }
+    }
+}
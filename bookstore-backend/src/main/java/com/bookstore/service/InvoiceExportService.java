@@ -0,0 +1,109 @@
+package com.bookstore.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.bookstore.entity.Order;
+import com.bookstore.repository.OrderRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulk invoice export as a streamed ZIP.
+ *
+ * Orders are read in id order, one chunk at a time, and each chunk's invoices
+ * are rendered in parallel on a bounded pool. Entries are still written in id
+ * order, and only one chunk is held in memory, however wide the date range.
+ */
+@Service
+public class InvoiceExportService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    private final int chunkSize;
+    private final ExecutorService renderers;
+
+    public InvoiceExportService(@Value("${invoice.export.chunk-size:200}") int chunkSize,
+                                @Value("${invoice.export.threads:4}") int threads) {
+        this.chunkSize = chunkSize;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.renderers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "invoice-export-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Writes invoices for orders placed from 'from' to 'to' (both inclusive)
+    public void exportZip(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        long lastId = 0;
+
+        while (true) {
+
+            List<Long> ids = orderRepository.findIdsByOrderDateBetween(
+                    start, end, lastId, PageRequest.of(0, chunkSize));
+
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            List<Order> orders = orderRepository.findWithItemsByIdIn(ids);
+
+            List<CompletableFuture<byte[]>> pdfs = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                pdfs.add(CompletableFuture.supplyAsync(
+                        () -> invoiceService.generateInvoice(order), renderers));
+            }
+
+            for (int i = 0; i < orders.size(); i++) {
+                zip.putNextEntry(new ZipEntry("invoice_" + orders.get(i).getId() + ".pdf"));
+                zip.write(join(pdfs.get(i)));
+                zip.closeEntry();
+            }
+            zip.flush();
+
+            lastId = ids.get(ids.size() - 1);
+        }
+
+        zip.finish();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderers.shutdown();
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> pdf) {
+        try {
+            return pdf.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Error generating invoice", e.getCause());
+        }
+    }
+}
@@ -3,32 +3,41 @@ package com.bookstore.service;
 import com.bookstore.entity.Order;
 import com.bookstore.entity.OrderItem;
 import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
 import com.lowagie.text.Paragraph;
 import com.lowagie.text.pdf.PdfWriter;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 
 @Service
 public class InvoiceService {
 
-    public byte[] generateInvoice(Order order) {
+    /**
+     * Renders the invoice straight into {@code out}, e.g. the servlet output
+     * stream, without holding the document on the heap. The stream is left
+     * open so callers can keep writing to it (a ZIP entry, for example).
+     */
+    public void writeInvoice(Order order, OutputStream out) {
 
         try {
             Document document = new Document();
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
 
-            PdfWriter.getInstance(document, out);
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
-            document.add(new Paragraph("Bookstore Invoice"));
-            document.add(new Paragraph("----------------------------"));
+            document.add(new Paragraph("===== BOOKSTORE INVOICE ====="));
+            document.add(new Paragraph(" "));
             document.add(new Paragraph("Order ID: " + order.getId()));
-            document.add(new Paragraph("Customer Email: " + order.getUserEmail()));
-            document.add(new Paragraph("Order Date: " + order.getOrderDate()));
+            document.add(new Paragraph("Customer: " + order.getUserEmail()));
+            document.add(new Paragraph("Date: " + order.getOrderDate()));
+            document.add(new Paragraph("Payment Status: " + order.getPaymentStatus()));
+            document.add(new Paragraph("Order Status: " + order.getOrderStatus()));
             document.add(new Paragraph(" "));
-
             document.add(new Paragraph("Items:"));
+            document.add(new Paragraph("---------------------------------------"));
 
             for (OrderItem item : order.getOrderItems()) {
                 document.add(new Paragraph(
@@ -38,17 +47,20 @@ public class InvoiceService {
                 ));
             }
 
-            document.add(new Paragraph(" "));
-            document.add(new Paragraph("Total Amount: " + order.getTotalAmount()));
-            document.add(new Paragraph(" "));
-            document.add(new Paragraph("Thank you for your purchase!"));
+            document.add(new Paragraph("---------------------------------------"));
+            document.add(new Paragraph("Total Amount: $" + order.getTotalAmount()));
 
             document.close();
 
-            return out.toByteArray();
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating invoice");
+        } catch (DocumentException e) {
+            throw new RuntimeException("Error generating invoice", e);
         }
     }
+
+    // For callers that need the whole document in memory
+    public byte[] generateInvoice(Order order) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInvoice(order, out);
+        return out.toByteArray();
+    }
 }
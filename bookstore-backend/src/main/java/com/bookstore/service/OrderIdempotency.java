@@ -0,0 +1,224 @@
+package com.bookstore.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.dto.OrderResponse;
+import com.bookstore.entity.IdempotencyRecord;
+import com.bookstore.entity.Order;
+import com.bookstore.exception.ServiceBusyException;
+import com.bookstore.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * {@code Idempotency-Key} handling for {@code POST /orders}.
+ *
+ * Each (user, key) pair places at most one order. Outcomes are kept in a
+ * bounded, expiring Caffeine map, so a retry is answered from memory. The
+ * map is a ConcurrentHashMap underneath, locked per bin rather than as a
+ * whole. A request that arrives while the first one with its key is still
+ * running waits for that one's outcome.
+ *
+ * For durability, and for retries that reach another instance, every key
+ * is also written to the {@code idempotency_key} table. The write happens
+ * in the order's own transaction, so the order and its key commit together.
+ * A new key costs no lookup: the claim is inserted straight away, and the
+ * table's unique constraint rejects a key that is already there. Only then
+ * is the stored key read, to replay its order or, when it is past its
+ * retention, to drop it and claim again. The same constraint settles a race
+ * between instances: the loser rolls back and replays the winner's order.
+ * A failed order keeps no key, so it can be retried with the same one.
+ */
+@Component
+public class OrderIdempotency {
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final String PLACED = "Order placed successfully";
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookCache bookCache;
+    private final Duration wait;
+    private final Duration retention;
+    private final Cache<String, CompletableFuture<Outcome>> outcomes;
+
+    public OrderIdempotency(OrderService orderService,
+                            IdempotencyRecordRepository idempotencyRecordRepository,
+                            TransactionTemplate transactionTemplate,
+                            BookCache bookCache,
+                            @Value("${order.idempotency.max-size:100000}") long maxSize,
+                            @Value("${order.idempotency.cache-ttl:10m}") Duration cacheTtl,
+                            @Value("${order.idempotency.retention:24h}") Duration retention,
+                            @Value("${order.idempotency.wait:30s}") Duration wait) {
+
+        this.orderService = orderService;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bookCache = bookCache;
+        this.wait = wait;
+        this.retention = retention;
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * Places the order once per key. A replay returns the original response
+     * without touching the catalog; a key reused for a different order is
+     * refused.
+     */
+    public OrderResponse placeOrder(OrderRequest orderRequest, String userEmail, String key) {
+
+        checkKey(key);
+
+        String requestHash = hash(OrderService.collectQuantities(orderRequest));
+        String cacheKey = userEmail + '\n' + key;
+
+        CompletableFuture<Outcome> mine = new CompletableFuture<>();
+        CompletableFuture<Outcome> first = outcomes.asMap().putIfAbsent(cacheKey, mine);
+        if (first != null) {
+            return replay(await(first), requestHash);
+        }
+
+        try {
+            Outcome outcome = firstAttempt(orderRequest, userEmail, key, requestHash);
+            mine.complete(outcome);
+            return replay(outcome, requestHash);
+        } catch (RuntimeException e) {
+            outcomes.asMap().remove(cacheKey, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Shared with the intake path, which takes the same header
+    static void checkKey(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    // Keys past their retention may be reused for a new order
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval:PT1H}",
+            initialDelayString = "${order.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+    }
+
+    private Outcome firstAttempt(OrderRequest orderRequest, String userEmail, String key, String requestHash) {
+
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return Outcome.of(claimAndPlace(orderRequest, userEmail, key, requestHash));
+
+                } catch (DataIntegrityViolationException e) {
+                    // The key is taken: by a placed order, one still running,
+                    // or one past its retention that was not purged yet
+                    Optional<IdempotencyRecord> stored =
+                            idempotencyRecordRepository.findByUserEmailAndIdempotencyKey(userEmail, key);
+                    if (attempt == 0 && stored.isPresent()
+                            && stored.get().getCreatedAt().isBefore(LocalDateTime.now().minus(retention))) {
+                        idempotencyRecordRepository.delete(stored.get());
+                        continue;
+                    }
+                    return stored
+                            .filter(winner -> winner.getOrderId() != null)
+                            .map(Outcome::of)
+                            .orElseThrow(() -> new ServiceBusyException(
+                                    "A request with this Idempotency-Key is still in progress", 1));
+                }
+            }
+        } finally {
+            // placeOrder evicted before this transaction committed
+            bookCache.evict(OrderService.collectQuantities(orderRequest).keySet());
+        }
+    }
+
+    // Claims the key and places the order in one transaction; a key already in the table fails the claim
+    private IdempotencyRecord claimAndPlace(OrderRequest orderRequest, String userEmail, String key, String requestHash) {
+        return transactionTemplate.execute(status -> {
+
+            // Claim the key before touching stock: a concurrent claim
+            // from another instance fails here, not after its order
+            IdempotencyRecord claim = new IdempotencyRecord();
+            claim.setUserEmail(userEmail);
+            claim.setIdempotencyKey(key);
+            claim.setRequestHash(requestHash);
+            claim.setCreatedAt(LocalDateTime.now());
+            claim = idempotencyRecordRepository.saveAndFlush(claim);
+
+            Order order = orderService.placeOrder(orderRequest, userEmail);
+            claim.setOrderId(order.getId());
+            return claim;
+        });
+    }
+
+    private Outcome await(CompletableFuture<Outcome> first) {
+        try {
+            return first.get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceBusyException("A request with this Idempotency-Key is still in progress", 1);
+        } catch (ExecutionException e) {
+            // the first request failed; so does its duplicate
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private static OrderResponse replay(Outcome outcome, String requestHash) {
+        if (!outcome.requestHash.equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different order");
+        }
+        return new OrderResponse(outcome.orderId, PLACED);
+    }
+
+    // Order lines in book id order, so the same cart always hashes the same
+    private static String hash(Map<Long, Integer> quantities) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = new TreeMap<>(quantities).toString().getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Outcome {
+
+        private final String requestHash;
+        private final Long orderId;
+
+        private Outcome(String requestHash, Long orderId) {
+            this.requestHash = requestHash;
+            this.orderId = orderId;
+        }
+
+        private static Outcome of(IdempotencyRecord record) {
+            return new Outcome(record.getRequestHash(), record.getOrderId());
+        }
+    }
+}
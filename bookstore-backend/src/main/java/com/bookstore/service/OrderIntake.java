@@ -0,0 +1,389 @@
+package com.bookstore.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.analytics.SalesAnalytics;
+import com.bookstore.dto.OrderIntakeStatus;
+import com.bookstore.dto.OrderIntakeStatus.State;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Order;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.exception.ServiceBusyException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookStockRepository;
+import com.bookstore.repository.OrderBatchRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous order intake with group commit.
+ *
+ * {@link #submit} checks the request, queues it and returns a ticket at
+ * once; a full queue is refused with {@link ServiceBusyException}. Workers
+ * take up to {@code order.intake.batch-size} queued orders at a time and
+ * commit them in one transaction: one stock read for all their books, one
+ * batch of net stock decrements and one batch insert each for the orders and
+ * their lines. Orders are admitted in arrival order while their stock lasts;
+ * the rest are rejected. A batch whose stock changed underneath it is
+ * retried; if it still cannot be committed its orders are placed one by one
+ * through {@link OrderService} instead.
+ *
+ * Queued orders live only in memory: they are lost if the process dies
+ * before their batch commits. Shutdown drains the queue first. At most
+ * {@code order.intake.max-tickets} tickets (and as many idempotency keys)
+ * are kept; under a larger burst the oldest are dropped before their
+ * {@code order.intake.status-ttl}, and polling them answers 404.
+ */
+@Component
+public class OrderIntake {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final OrderService orderService;
+    private final BookRepository bookRepository;
+    private final BookStockRepository bookStockRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookCache bookCache;
+    private final SalesAnalytics salesAnalytics;
+    private final MeterRegistry meterRegistry;
+
+    private final int batchSize;
+    private final long retryAfterSeconds;
+    private final BlockingQueue<Pending> queue;
+    private final Cache<String, Pending> tickets;
+    private final Cache<String, Pending> ticketsByKey;
+    private final ExecutorService workers;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+
+    public OrderIntake(OrderService orderService,
+                       BookRepository bookRepository,
+                       BookStockRepository bookStockRepository,
+                       OrderBatchRepository orderBatchRepository,
+                       TransactionTemplate transactionTemplate,
+                       BookCache bookCache,
+                       SalesAnalytics salesAnalytics,
+                       MeterRegistry meterRegistry,
+                       @Value("${order.intake.queue-capacity:10000}") int queueCapacity,
+                       @Value("${order.intake.batch-size:200}") int batchSize,
+                       @Value("${order.intake.threads:2}") int threads,
+                       @Value("${order.intake.retry-after:1s}") Duration retryAfter,
+                       @Value("${order.intake.status-ttl:10m}") Duration statusTtl,
+                       @Value("${order.intake.max-tickets:100000}") long maxTickets) {
+
+        this.orderService = orderService;
+        this.bookRepository = bookRepository;
+        this.bookStockRepository = bookStockRepository;
+        this.orderBatchRepository = orderBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bookCache = bookCache;
+        this.salesAnalytics = salesAnalytics;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(maxTickets)
+                .expireAfterWrite(statusTtl)
+                .build();
+        this.ticketsByKey = Caffeine.newBuilder()
+                .maximumSize(maxTickets)
+                .expireAfterWrite(statusTtl)
+                .build();
+
+        meterRegistry.gauge("order.intake.queue", queue, BlockingQueue::size);
+        this.batchSizes = meterRegistry.summary("order.intake.batch");
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Validates and queues the order. Unknown books and bad quantities are
+     * refused here (400/404); stock is only checked when the order commits.
+     */
+    public OrderIntakeStatus submit(OrderRequest orderRequest, String userEmail) {
+        return submit(orderRequest, userEmail, null);
+    }
+
+    /**
+     * As {@link #submit(OrderRequest, String)}, once per (user, key): a retry
+     * with the same key gets the first request's ticket and status instead
+     * of queueing the order again, and a key reused for a different cart is
+     * refused. Keys live as long as their ticket. A rejected order keeps no
+     * key, so it can be retried with the same one.
+     */
+    public OrderIntakeStatus submit(OrderRequest orderRequest, String userEmail, String idempotencyKey) {
+
+        if (idempotencyKey != null) {
+            OrderIdempotency.checkKey(idempotencyKey);
+        }
+
+        Map<Long, Integer> quantities = OrderService.collectQuantities(orderRequest);
+
+        Map<Long, Book> books = bookCache.getAll(quantities.keySet());
+        for (Long bookId : quantities.keySet()) {
+            if (!books.containsKey(bookId)) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
+        }
+
+        Pending pending = new Pending(UUID.randomUUID().toString(), userEmail, orderRequest, quantities);
+
+        String key = idempotencyKey == null ? null : userEmail + '\n' + idempotencyKey;
+        if (key != null) {
+            Pending first = ticketsByKey.asMap().compute(key,
+                    (k, existing) -> existing == null || existing.rejected() ? pending : existing);
+            if (first != pending) {
+                if (!first.quantities.equals(quantities)) {
+                    throw new IllegalArgumentException("Idempotency-Key was already used for a different order");
+                }
+                return first.status();
+            }
+        }
+
+        tickets.put(pending.ticket, pending);
+        if (!running || !queue.offer(pending)) {
+            tickets.invalidate(pending.ticket);
+            if (key != null) {
+                ticketsByKey.asMap().remove(key, pending);
+            }
+            throw new ServiceBusyException("Order intake is full, retry later", retryAfterSeconds);
+        }
+        return pending.status();
+    }
+
+    // The ticket's current status; tickets of other users are not found
+    public OrderIntakeStatus status(String ticket, String userEmail) {
+        return find(ticket, userEmail).status();
+    }
+
+    /**
+     * Completes once the order is placed or rejected, or after
+     * {@code timeout} with the status at that point.
+     */
+    public CompletableFuture<OrderIntakeStatus> awaitStatus(String ticket, String userEmail, Duration timeout) {
+        Pending pending = find(ticket, userEmail);
+        return pending.result.copy()
+                .completeOnTimeout(pending.status(), timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private Pending find(String ticket, String userEmail) {
+        Pending pending = tickets.getIfPresent(ticket);
+        if (pending == null || !pending.userEmail.equals(userEmail)) {
+            throw new ResourceNotFoundException("Order ticket not found: " + ticket);
+        }
+        return pending;
+    }
+
+    // ================= WORKERS =================
+
+    private void drain() {
+
+        List<Pending> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                batch.forEach(p -> p.complete(State.REJECTED, null, "Order could not be placed"));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Pending> batch) {
+
+        batchSizes.record(batch.size());
+
+        Set<Long> bookIds = new LinkedHashSet<>();
+        batch.forEach(p -> bookIds.addAll(p.quantities.keySet()));
+
+        List<Runnable> outcomes = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && outcomes == null; attempt++) {
+            try {
+                outcomes = transactionTemplate.execute(status -> commit(batch, bookIds));
+            } catch (StockChangedException e) {
+                // rolled back; read the stock again
+            } catch (RuntimeException e) {
+                break;
+            } finally {
+                bookCache.evict(bookIds);
+            }
+        }
+
+        if (outcomes != null) {
+            outcomes.forEach(Runnable::run);
+            return;
+        }
+
+        // The batch could not be committed; place its orders one at a time
+        for (Pending pending : batch) {
+            try {
+                Order order = orderService.placeOrder(pending.orderRequest, pending.userEmail);
+                pending.complete(State.PLACED, order.getId(), "Order placed successfully");
+            } catch (IllegalArgumentException | ResourceNotFoundException e) {
+                pending.complete(State.REJECTED, null, e.getMessage());
+            } catch (RuntimeException e) {
+                pending.complete(State.REJECTED, null, "Order could not be placed");
+            }
+        }
+    }
+
+    /**
+     * Admits what fits and writes it. Returns the status updates to publish
+     * once committed; throws {@link StockChangedException}, rolling back,
+     * when a decrement fails because stock changed since it was read.
+     */
+    private List<Runnable> commit(List<Pending> batch, Set<Long> bookIds) {
+
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllById(bookIds).forEach(book -> books.put(book.getId(), book));
+        Map<Long, Integer> remaining = bookStockRepository.findStocks(bookIds);
+
+        // Sorted, so the stock rows are locked in book id order like every other checkout
+        Map<Long, Integer> taken = new TreeMap<>();
+        List<Pending> admitted = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        List<Runnable> outcomes = new ArrayList<>();
+
+        for (Pending pending : batch) {
+
+            Long unavailable = firstUnavailable(pending.quantities, books, remaining);
+            if (unavailable != null) {
+                outcomes.add(reject(pending, unavailable, books.get(unavailable)));
+                continue;
+            }
+
+            pending.quantities.forEach((bookId, quantity) -> {
+                remaining.merge(bookId, -quantity, Integer::sum);
+                taken.merge(bookId, quantity, Integer::sum);
+            });
+            admitted.add(pending);
+            orders.add(OrderService.buildOrder(pending.orderRequest, pending.userEmail, books));
+        }
+
+        if (!bookStockRepository.decrementStock(taken).isEmpty()) {
+            throw new StockChangedException();
+        }
+
+        orderBatchRepository.insertAll(orders);
+        orders.forEach(order -> salesAnalytics.orderPlaced(order, books));
+
+        for (int i = 0; i < admitted.size(); i++) {
+            Pending pending = admitted.get(i);
+            Long orderId = orders.get(i).getId();
+            outcomes.add(() -> pending.complete(State.PLACED, orderId, "Order placed successfully"));
+        }
+        return outcomes;
+    }
+
+    // Null when every line fits, otherwise the first book that is missing or short
+    private static Long firstUnavailable(Map<Long, Integer> quantities,
+                                         Map<Long, Book> books,
+                                         Map<Long, Integer> remaining) {
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (!books.containsKey(line.getKey())
+                    || remaining.getOrDefault(line.getKey(), 0) < line.getValue()) {
+                return line.getKey();
+            }
+        }
+        return null;
+    }
+
+    // Published after the commit, so a batch retried on changed stock counts each rejection once
+    private Runnable reject(Pending pending, Long bookId, Book book) {
+
+        if (book == null) {
+            return () -> pending.complete(State.REJECTED, null, "Book not found with id: " + bookId);
+        }
+        String problem = OrderService.notEnoughStock(book).getMessage();
+        return () -> {
+            meterRegistry.counter("order.stock.rejected", "book", String.valueOf(bookId)).increment();
+            pending.complete(State.REJECTED, null, problem);
+        };
+    }
+
+    private static final class StockChangedException extends RuntimeException {
+    }
+
+    private static final class Pending {
+
+        private final String ticket;
+        private final String userEmail;
+        private final OrderRequest orderRequest;
+        private final Map<Long, Integer> quantities;
+        private final CompletableFuture<OrderIntakeStatus> result = new CompletableFuture<>();
+
+        private Pending(String ticket, String userEmail, OrderRequest orderRequest, Map<Long, Integer> quantities) {
+            this.ticket = ticket;
+            this.userEmail = userEmail;
+            this.orderRequest = orderRequest;
+            this.quantities = quantities;
+        }
+
+        private boolean rejected() {
+            OrderIntakeStatus done = result.getNow(null);
+            return done != null && done.getStatus() == State.REJECTED;
+        }
+
+        private OrderIntakeStatus status() {
+            OrderIntakeStatus done = result.getNow(null);
+            return done != null ? done : new OrderIntakeStatus(ticket, State.QUEUED, null, "Order queued");
+        }
+
+        private void complete(State state, Long orderId, String message) {
+            result.complete(new OrderIntakeStatus(ticket, state, orderId, message));
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.bookstore.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.analytics.SalesAnalytics;
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderLine;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.dto.OrderSummary;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderItem;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookStockRepository;
+import com.bookstore.repository.OrderRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Service
+public class OrderService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private InventoryEngine inventoryEngine;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Value("${inventory.engine.enabled:false}")
+    private boolean inventoryEngineEnabled;
+
+    /**
+     * Places an order for the given user.
+     *
+     * By default all books are loaded with one query and stock is reserved
+     * with one batch of conditional updates inside the order transaction. If
+     * any line cannot be reserved the exception rolls back the whole
+     * transaction, including the lines already decremented.
+     *
+     * With {@code inventory.engine.enabled} stock is reserved through the
+     * {@link InventoryEngine} before the transaction opens, and given back if
+     * the order cannot be completed.
+     *
+     * Either way the books are evicted from {@link BookCache} afterwards, so
+     * a cached book never shows stock from before the order.
+     *
+     * Timed as {@code order.stock.reserve} and {@code order.persist};
+     * {@code order.stock.rejected} counts insufficient-stock rejections per
+     * book.
+     */
+    public Order placeOrder(OrderRequest orderRequest, String userEmail) {
+
+        Map<Long, Integer> quantities = collectQuantities(orderRequest);
+
+        try {
+            if (inventoryEngineEnabled) {
+                return placeOrderWithEngine(orderRequest, userEmail, quantities);
+            }
+
+            return transactionTemplate.execute(status -> {
+
+                Map<Long, Book> books = loadBooks(quantities);
+
+                // Reduce stock
+                List<Long> rejected = meterRegistry.timer("order.stock.reserve", "mode", "batch")
+                        .record(() -> bookStockRepository.decrementStock(quantities));
+                if (!rejected.isEmpty()) {
+                    rejected.forEach(this::countRejected);
+                    throw notEnoughStock(books.get(rejected.get(0)));
+                }
+
+                return persist(buildOrder(orderRequest, userEmail, books), books);
+            });
+        } finally {
+            // Stock is committed (or rolled back / released) by now
+            bookCache.evict(quantities.keySet());
+        }
+    }
+
+    private Order placeOrderWithEngine(OrderRequest orderRequest,
+                                       String userEmail,
+                                       Map<Long, Integer> quantities) {
+
+        Map<Long, Book> books = loadBooks(quantities);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<Long, CompletableFuture<ReservationResult>> reservations = new LinkedHashMap<>();
+        quantities.forEach((bookId, quantity) ->
+                reservations.put(bookId, inventoryEngine.reserve(bookId, quantity)));
+
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        Long rejectedBookId = null;
+        RuntimeException failure = null;
+
+        for (Map.Entry<Long, CompletableFuture<ReservationResult>> entry : reservations.entrySet()) {
+            try {
+                if (entry.getValue().join() == ReservationResult.RESERVED) {
+                    reserved.put(entry.getKey(), quantities.get(entry.getKey()));
+                } else {
+                    countRejected(entry.getKey());
+                    if (rejectedBookId == null) {
+                        rejectedBookId = entry.getKey();
+                    }
+                }
+            } catch (CompletionException e) {
+                failure = e;
+            }
+        }
+        sample.stop(meterRegistry.timer("order.stock.reserve", "mode", "engine"));
+
+        if (failure != null) {
+            releaseAll(reserved);
+            throw failure;
+        }
+
+        if (rejectedBookId != null) {
+            releaseAll(reserved);
+            throw notEnoughStock(books.get(rejectedBookId));
+        }
+
+        try {
+            return transactionTemplate.execute(status ->
+                    persist(buildOrder(orderRequest, userEmail, books), books));
+        } catch (RuntimeException e) {
+            releaseAll(reserved);
+            throw e;
+        }
+    }
+
+    // Counted in SalesAnalytics once the transaction commits
+    private Order persist(Order order, Map<Long, Book> books) {
+        Order saved = meterRegistry.timer("order.persist").record(() -> orderRepository.save(order));
+        salesAnalytics.orderPlaced(saved, books);
+        return saved;
+    }
+
+    // Tagged by book; MetricsConfig caps how many books get their own series
+    private void countRejected(Long bookId) {
+        meterRegistry.counter("order.stock.rejected", "book", String.valueOf(bookId)).increment();
+    }
+
+    private void releaseAll(Map<Long, Integer> reserved) {
+        reserved.forEach(inventoryEngine::release);
+    }
+
+    private Map<Long, Book> loadBooks(Map<Long, Integer> quantities) {
+
+        Map<Long, Book> books = bookRepository.findAllById(quantities.keySet())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        for (Long bookId : quantities.keySet()) {
+            if (!books.containsKey(bookId)) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
+        }
+        return books;
+    }
+
+    // Package-private for the JMH benchmark of the line-building loop
+    static Order buildOrder(OrderRequest orderRequest, String userEmail, Map<Long, Book> books) {
+
+        Order order = new Order();
+        order.setUserEmail(userEmail);
+        order.setOrderDate(LocalDateTime.now());
+        order.setPaymentStatus(PaymentStatus.PENDING);
+        order.setOrderStatus(OrderStatus.PLACED);
+
+        double totalAmount = 0;
+        List<OrderItem> orderItems = new ArrayList<>();
+
+        for (OrderItemRequest item : orderRequest.getItems()) {
+
+            Book book = books.get(item.getBookId());
+
+            // Create order item
+            OrderItem orderItem = new OrderItem();
+            orderItem.setBookId(book.getId());
+            orderItem.setQuantity(item.getQuantity());
+            orderItem.setPrice(book.getPrice());
+            orderItem.setOrder(order);
+
+            totalAmount += book.getPrice() * item.getQuantity();
+            orderItems.add(orderItem);
+        }
+
+        order.setTotalAmount(totalAmount);
+        order.setOrderItems(orderItems);
+        return order;
+    }
+
+    static IllegalArgumentException notEnoughStock(Book book) {
+        return new IllegalArgumentException("Not enough stock for book: " + book.getTitle());
+    }
+
+    /**
+     * One page of the user's orders with their items: a page query, a count
+     * query when more than one page exists, and one query for all the items,
+     * no matter how many orders the page holds.
+     */
+    public Page<OrderSummary> getOrdersForUser(String userEmail, int page, int size) {
+
+        if (page < 0 || size < 1 || size > 100) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and 100");
+        }
+
+        Page<OrderSummary> orders =
+                orderRepository.findSummariesByUserEmail(userEmail, PageRequest.of(page, size));
+
+        if (orders.isEmpty()) {
+            return orders;
+        }
+
+        Map<Long, OrderSummary> byId = new LinkedHashMap<>();
+        orders.forEach(order -> byId.put(order.getId(), order));
+
+        for (OrderLine line : orderRepository.findLinesByOrderIds(byId.keySet())) {
+            byId.get(line.getOrderId()).getItems().add(line);
+        }
+        return orders;
+    }
+
+    // Sums quantities per book so a book listed twice is reserved in one update
+    static Map<Long, Integer> collectQuantities(OrderRequest orderRequest) {
+
+        if (orderRequest.getItems() == null || orderRequest.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+
+        for (OrderItemRequest item : orderRequest.getItems()) {
+
+            if (item.getBookId() == null) {
+                throw new IllegalArgumentException("Book id is required");
+            }
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException(
+                        "Quantity must be greater than zero for book: " + item.getBookId());
+            }
+
+            quantities.merge(item.getBookId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
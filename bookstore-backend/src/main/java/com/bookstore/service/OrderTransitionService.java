@@ -0,0 +1,246 @@
+package com.bookstore.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.analytics.SalesAnalytics;
+import com.bookstore.dto.OrderState;
+import com.bookstore.dto.OrderTransition;
+import com.bookstore.dto.TransitionResult;
+import com.bookstore.dto.TransitionResult.Outcome;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.repository.OrderBatchRepository;
+import com.bookstore.repository.OrderRepository;
+
+/**
+ * Order and payment status changes: one order at a time for the admin and
+ * cancel endpoints, and in bulk for the warehouse and payment systems.
+ *
+ * A single order is read with its row locked, so the status it moves from
+ * is the one it actually had and a concurrent change waits. Setting the
+ * status an order already has changes and reports nothing.
+ *
+ * The orders' current statuses are read with their rows locked, each
+ * change is checked against the allowed moves, and the accepted ones are
+ * written as one {@code UPDATE ... WHERE id IN (...)} per target status,
+ * all in one transaction. No order entity is loaded or returned; the
+ * caller gets one small result per entry, in request order.
+ */
+@Service
+public class OrderTransitionService {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> ORDER_MOVES = new EnumMap<>(Map.of(
+            OrderStatus.PLACED, EnumSet.of(OrderStatus.SHIPPED, OrderStatus.CANCELLED),
+            OrderStatus.SHIPPED, EnumSet.of(OrderStatus.DELIVERED),
+            OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class),
+            OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class)));
+
+    private static final Map<PaymentStatus, Set<PaymentStatus>> PAYMENT_MOVES = new EnumMap<>(Map.of(
+            PaymentStatus.PENDING, EnumSet.of(PaymentStatus.PAID, PaymentStatus.FAILED),
+            PaymentStatus.FAILED, EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PAID),
+            PaymentStatus.PAID, EnumSet.noneOf(PaymentStatus.class)));
+
+    @Autowired
+    private OrderBatchRepository orderBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InvoiceCache invoiceCache;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${order.transitions.max-batch:5000}")
+    private int maxBatch;
+
+    // ================= SINGLE ORDERS =================
+
+    public Order setOrderStatus(Long orderId, OrderStatus status) {
+        return change(orderId, order -> {
+            OrderStatus previous = order.getOrderStatus();
+            if (previous == status) {
+                return false;
+            }
+            order.setOrderStatus(status);
+            salesAnalytics.orderStatusChanged(order, previous);
+            return true;
+        });
+    }
+
+    public Order setPaymentStatus(Long orderId, PaymentStatus status) {
+        return change(orderId, order -> {
+            PaymentStatus previous = order.getPaymentStatus();
+            if (previous == status) {
+                return false;
+            }
+            order.setPaymentStatus(status);
+            salesAnalytics.paymentStatusChanged(previous, status);
+            return true;
+        });
+    }
+
+    // A customer cancelling their own order, unless it has already shipped
+    public Order cancel(Long orderId, String userEmail) {
+        return change(orderId, order -> {
+            if (!order.getUserEmail().equals(userEmail)) {
+                throw new RuntimeException("Access denied");
+            }
+            if (order.getOrderStatus() == OrderStatus.SHIPPED
+                    || order.getOrderStatus() == OrderStatus.DELIVERED) {
+                throw new RuntimeException("Cannot cancel shipped/delivered order");
+            }
+            OrderStatus previous = order.getOrderStatus();
+            if (previous == OrderStatus.CANCELLED) {
+                return false;
+            }
+            order.setOrderStatus(OrderStatus.CANCELLED);
+            salesAnalytics.orderStatusChanged(order, previous);
+            return true;
+        });
+    }
+
+    // Runs the change on the locked order; the update is flushed when the transaction commits
+    private Order change(Long orderId, Predicate<Order> change) {
+
+        boolean[] changed = new boolean[1];
+        Order order = transactionTemplate.execute(status -> {
+            Order locked = orderRepository.findByIdForUpdate(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+            changed[0] = change.test(locked);
+            return locked;
+        });
+
+        if (changed[0]) {
+            invoiceCache.invalidate(orderId);
+        }
+        return order;
+    }
+
+    // ================= BULK =================
+
+    public List<TransitionResult> apply(List<OrderTransition> transitions) {
+
+        if (transitions == null || transitions.isEmpty()) {
+            throw new IllegalArgumentException("No transitions given");
+        }
+        if (transitions.size() > maxBatch) {
+            throw new IllegalArgumentException("At most " + maxBatch + " transitions per request");
+        }
+
+        Set<Long> orderIds = new LinkedHashSet<>();
+        transitions.forEach(t -> {
+            if (t != null && t.getOrderId() != null) {
+                orderIds.add(t.getOrderId());
+            }
+        });
+
+        TransitionResult[] results = new TransitionResult[transitions.size()];
+
+        Set<Long> changed = transactionTemplate.execute(status -> {
+
+            Map<Long, OrderState> states = orderBatchRepository.lockStates(orderIds);
+            Map<OrderStatus, List<OrderState>> byOrderStatus = new EnumMap<>(OrderStatus.class);
+            Map<PaymentStatus, List<OrderState>> byPaymentStatus = new EnumMap<>(PaymentStatus.class);
+            Set<Long> seen = new HashSet<>();
+            Set<Long> applied = new HashSet<>();
+
+            for (int i = 0; i < results.length; i++) {
+
+                OrderTransition transition = transitions.get(i);
+                results[i] = check(transition, states, seen);
+                if (results[i].getOutcome() != Outcome.APPLIED) {
+                    continue;
+                }
+
+                OrderState state = states.get(transition.getOrderId());
+                if (transition.getOrderStatus() != null && transition.getOrderStatus() != state.getOrderStatus()) {
+                    byOrderStatus.computeIfAbsent(transition.getOrderStatus(), s -> new ArrayList<>()).add(state);
+                }
+                if (transition.getPaymentStatus() != null
+                        && transition.getPaymentStatus() != state.getPaymentStatus()) {
+                    byPaymentStatus.computeIfAbsent(transition.getPaymentStatus(), s -> new ArrayList<>()).add(state);
+                }
+                applied.add(state.getOrderId());
+            }
+
+            byOrderStatus.forEach((to, moved) -> {
+                orderBatchRepository.updateOrderStatus(to, ids(moved));
+                salesAnalytics.orderStatusesChanged(moved, to);
+            });
+            byPaymentStatus.forEach((to, moved) -> {
+                orderBatchRepository.updatePaymentStatus(to, ids(moved));
+                salesAnalytics.paymentStatusesChanged(moved, to);
+            });
+            return applied;
+        });
+
+        changed.forEach(invoiceCache::invalidate);
+        return Arrays.asList(results);
+    }
+
+    private static TransitionResult check(OrderTransition transition, Map<Long, OrderState> states, Set<Long> seen) {
+
+        if (transition == null || transition.getOrderId() == null) {
+            return new TransitionResult(null, Outcome.REJECTED, "orderId is required");
+        }
+
+        Long orderId = transition.getOrderId();
+        OrderStatus orderStatus = transition.getOrderStatus();
+        PaymentStatus paymentStatus = transition.getPaymentStatus();
+
+        if (orderStatus == null && paymentStatus == null) {
+            return new TransitionResult(orderId, Outcome.REJECTED, "No orderStatus or paymentStatus given");
+        }
+        if (!seen.add(orderId)) {
+            return new TransitionResult(orderId, Outcome.REJECTED, "Order listed more than once");
+        }
+
+        OrderState state = states.get(orderId);
+        if (state == null) {
+            return new TransitionResult(orderId, Outcome.NOT_FOUND, null);
+        }
+
+        boolean orderMoves = orderStatus != null && orderStatus != state.getOrderStatus();
+        boolean paymentMoves = paymentStatus != null && paymentStatus != state.getPaymentStatus();
+
+        if (orderMoves && state.getOrderStatus() != null
+                && !ORDER_MOVES.get(state.getOrderStatus()).contains(orderStatus)) {
+            return new TransitionResult(orderId, Outcome.REJECTED,
+                    "Cannot move order from " + state.getOrderStatus() + " to " + orderStatus);
+        }
+        if (paymentMoves && state.getPaymentStatus() != null
+                && !PAYMENT_MOVES.get(state.getPaymentStatus()).contains(paymentStatus)) {
+            return new TransitionResult(orderId, Outcome.REJECTED,
+                    "Cannot move payment from " + state.getPaymentStatus() + " to " + paymentStatus);
+        }
+
+        return new TransitionResult(orderId, orderMoves || paymentMoves ? Outcome.APPLIED : Outcome.UNCHANGED, null);
+    }
+
+    private static List<Long> ids(List<OrderState> states) {
+        List<Long> ids = new ArrayList<>(states.size());
+        states.forEach(state -> ids.add(state.getOrderId()));
+        return ids;
+    }
+}
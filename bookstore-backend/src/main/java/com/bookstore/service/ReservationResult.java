@@ -0,0 +1,6 @@
+package com.bookstore.service;
+
+public enum ReservationResult {
+    RESERVED,
+    REJECTED
+}
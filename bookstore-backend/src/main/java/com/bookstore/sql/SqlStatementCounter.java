@@ -0,0 +1,100 @@
+package com.bookstore.sql;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Listener on the proxied data source: counts executed statements for the
+ * scope open on the current thread, and reports slow ones.
+ *
+ * A JDBC batch counts as one statement. Statements slower than
+ * {@code sql.slow-query.threshold} are counted in {@code sql.slow.queries};
+ * a {@code sql.slow-query.sample-rate} share of them is also logged, which
+ * replaces {@code spring.jpa.show-sql}.
+ */
+@Component
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCounter.class);
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final Counter slowQueries;
+
+    public SqlStatementCounter(@Value("${sql.slow-query.threshold:200ms}") Duration threshold,
+                               @Value("${sql.slow-query.sample-rate:0.1}") double sampleRate,
+                               MeterRegistry meterRegistry) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+        this.slowQueries = meterRegistry.counter("sql.slow.queries");
+    }
+
+    /**
+     * Starts counting the statements run on this thread until the scope is
+     * closed. Scopes nest; an inner scope's statements are not added to the
+     * outer one.
+     */
+    public Scope open() {
+        Scope scope = new Scope(current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+
+        Scope scope = current.get();
+        if (scope != null) {
+            scope.statements++;
+        }
+
+        if (execInfo.getElapsedTime() < thresholdMillis) {
+            return;
+        }
+        slowQueries.increment();
+        if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.warn("Slow SQL ({} ms, {} statement(s) in batch): {}", execInfo.getElapsedTime(),
+                    Math.max(1, execInfo.getBatchSize()), queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+        }
+    }
+
+    public class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private long statements;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public long statements() {
+            return statements;
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                current.remove();
+            } else {
+                current.set(parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bookstore.sql;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements each request runs and checks them against a
+ * budget.
+ *
+ * The count is recorded in {@code sql.statements} (tagged by method and URI
+ * pattern) and left in the {@link #STATEMENTS_ATTRIBUTE} request attribute.
+ * A request over its endpoint's budget logs a warning. Budgets are listed in
+ * {@code sql.budget.endpoints} as {@code METHOD /pattern=N}; other endpoints
+ * get {@code sql.budget.default}.
+ *
+ * Only statements run on the request thread are counted, so the body of a
+ * streamed response is not.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_ATTRIBUTE = SqlStatementFilter.class.getName() + ".statements";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final Map<String, Integer> budgets = new HashMap<>();
+
+    public SqlStatementFilter(SqlStatementCounter counter,
+                              MeterRegistry meterRegistry,
+                              @Value("${sql.budget.default:20}") int defaultBudget,
+                              @Value("${sql.budget.endpoints:}") List<String> endpointBudgets) {
+
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+
+        for (String entry : endpointBudgets) {
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("sql.budget.endpoints entries must look like 'GET /books=2': " + entry);
+            }
+            budgets.put(entry.substring(0, separator).trim(), Integer.valueOf(entry.substring(separator + 1).trim()));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        try (SqlStatementCounter.Scope scope = counter.open()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                // a request that throws still ran its statements
+                record(request, scope.statements());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, long statements) {
+
+        request.setAttribute(STATEMENTS_ATTRIBUTE, statements);
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+
+        meterRegistry.summary("sql.statements", "method", request.getMethod(), "uri", uri).record(statements);
+
+        String endpoint = request.getMethod() + " " + uri;
+        int budget = budgets.getOrDefault(endpoint, defaultBudget);
+        if (statements > budget) {
+            log.warn("{} ran {} SQL statements, over its budget of {}", endpoint, statements, budget);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.bookstore.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.service.OrderService;
+
+@SpringBootTest
+class SalesAnalyticsTest {
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        salesAnalytics.rebuild();
+    }
+
+    @Test
+    void countersFollowOrdersAndMatchARebuild() {
+
+        Book dune = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 50));
+        Book odes = bookRepository.save(new Book(null, "Odes", "John Keats", "Poetry", 4.5, 50));
+
+        orderService.placeOrder(request(dune.getId(), 3), "a@test.com");
+        orderService.placeOrder(request(odes.getId(), 2), "b@test.com");
+        Order cancelled = orderService.placeOrder(request(dune.getId(), 1), "c@test.com");
+
+        cancelled.setOrderStatus(OrderStatus.CANCELLED);
+        orderRepository.save(cancelled);
+        salesAnalytics.orderStatusChanged(cancelled, OrderStatus.PLACED);
+
+        LocalDate today = LocalDate.now();
+        List<DailySales> sales = salesAnalytics.dailySales(today, today);
+        assertEquals(2, sales.size());
+        assertEquals("Poetry", sales.get(0).getGenre());
+        assertEquals(9.0, sales.get(0).getRevenue());
+        assertEquals("Sci-Fi", sales.get(1).getGenre());
+        assertEquals(3, sales.get(1).getUnits());
+        assertEquals(30.0, sales.get(1).getRevenue());
+        assertEquals(1, sales.get(1).getOrders());
+
+        StatusCounts counts = salesAnalytics.statusCounts();
+        assertEquals(2, counts.getOrderStatus().get(OrderStatus.PLACED));
+        assertEquals(1, counts.getOrderStatus().get(OrderStatus.CANCELLED));
+        assertEquals(3, counts.getPaymentStatus().get(PaymentStatus.PENDING));
+
+        salesAnalytics.flush();
+        assertEquals(dune.getId(), salesAnalytics.topBooks(10).get(0).getBookId());
+
+        RebuildReport report = salesAnalytics.rebuild();
+        assertEquals(3, report.getOrders());
+
+        List<DailySales> rebuilt = salesAnalytics.dailySales(today, today);
+        assertEquals(sales.size(), rebuilt.size());
+        for (int i = 0; i < sales.size(); i++) {
+            assertEquals(sales.get(i).getGenre(), rebuilt.get(i).getGenre());
+            assertEquals(sales.get(i).getRevenue(), rebuilt.get(i).getRevenue());
+            assertEquals(sales.get(i).getUnits(), rebuilt.get(i).getUnits());
+            assertEquals(sales.get(i).getOrders(), rebuilt.get(i).getOrders());
+        }
+        assertEquals(counts.getOrderStatus(), salesAnalytics.statusCounts().getOrderStatus());
+        assertEquals(counts.getPaymentStatus(), salesAnalytics.statusCounts().getPaymentStatus());
+    }
+
+    @Test
+    void rangeIsLimitedToAYear() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> salesAnalytics.dailySales(from, from.plusDays(400)));
+        assertThrows(IllegalArgumentException.class, () -> salesAnalytics.dailySales(from, from.minusDays(1)));
+    }
+
+    private static OrderRequest request(Long bookId, int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setBookId(bookId);
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+}
@@ -0,0 +1,39 @@
+package com.bookstore.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MetricsConfigTest {
+
+    @Test
+    void bookTagsBeyondTheLimitAreFoldedIntoOther() {
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MetricsConfig().rejectedBookTagLimit(2));
+
+        for (String book : new String[]{"1", "2", "3", "4", "1"}) {
+            registry.counter("order.stock.rejected", "book", book).increment();
+        }
+
+        assertEquals(2.0, registry.get("order.stock.rejected").tag("book", "1").counter().count());
+        assertEquals(1.0, registry.get("order.stock.rejected").tag("book", "2").counter().count());
+        assertEquals(2.0, registry.get("order.stock.rejected").tag("book", "other").counter().count());
+        assertEquals(3, registry.find("order.stock.rejected").counters().size());
+    }
+
+    @Test
+    void otherMetersAreLeftAlone() {
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MetricsConfig().rejectedBookTagLimit(1));
+
+        registry.counter("catalog.other", "book", "1").increment();
+        registry.counter("catalog.other", "book", "2").increment();
+
+        assertEquals(2, registry.find("catalog.other").counters().size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.bookstore.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.bookstore.entity.User;
+import com.bookstore.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void refreshTokenIsRotatedAndAReusedOneEndsTheSession() throws Exception {
+
+        createUser("rotate@test.com");
+
+        String first = login("rotate@test.com", "secret")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andReturn().getResponse().getContentAsString();
+        String firstRefresh = JsonPath.read(first, "$.refreshToken");
+
+        String second = refresh(firstRefresh)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String secondRefresh = JsonPath.read(second, "$.refreshToken");
+
+        // The first token again: treated as stolen, so its successor dies too
+        refresh(firstRefresh).andExpect(status().isUnauthorized());
+        refresh(secondRefresh).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() throws Exception {
+
+        createUser("wrong@test.com");
+
+        login("wrong@test.com", "not-the-password").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutRevokesTheRefreshToken() throws Exception {
+
+        createUser("logout@test.com");
+
+        String body = login("logout@test.com", "secret").andReturn().getResponse().getContentAsString();
+        String refreshToken = JsonPath.read(body, "$.refreshToken");
+
+        mockMvc.perform(post("/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isNoContent());
+
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutRevokesTheAccessTokenAtOnce() throws Exception {
+
+        createUser("revoke@test.com");
+
+        String body = login("revoke@test.com", "secret").andReturn().getResponse().getContentAsString();
+        String accessToken = JsonPath.read(body, "$.accessToken");
+
+        mockMvc.perform(get("/orders/my").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/logout").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/orders/my").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void onlyAdminsMayRevokeOtherTokens() throws Exception {
+
+        createUser("plain@test.com");
+
+        String body = login("plain@test.com", "secret").andReturn().getResponse().getContentAsString();
+        String accessToken = JsonPath.read(body, "$.accessToken");
+
+        mockMvc.perform(post("/auth/revoke")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"" + accessToken + "\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    private void createUser(String email) {
+        User user = new User();
+        user.setName("Reader");
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRole("ROLE_USER");
+        userRepository.save(user);
+    }
+
+    private ResultActions login(String email, String password) throws Exception {
+
+        MvcResult started = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+}
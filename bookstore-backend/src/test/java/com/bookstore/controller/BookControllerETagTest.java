@@ -0,0 +1,81 @@
+package com.bookstore.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.service.BookCache;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookControllerETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void unchangedBookIsNotModifiedUntilItIsWritten() throws Exception {
+
+        Long id = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 5)).getId();
+
+        String etag = mockMvc.perform(get("/books/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=0, must-revalidate, public"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/books/" + id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        bookCache.evict(id);
+
+        String changed = mockMvc.perform(get("/books/" + id).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void catalogListIsTaggedWithTheCatalogVersion() throws Exception {
+
+        String etag = mockMvc.perform(get("/books"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/books").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        bookCache.evict(42L);
+
+        mockMvc.perform(get("/books").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+}
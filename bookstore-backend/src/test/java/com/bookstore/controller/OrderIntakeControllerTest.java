@@ -0,0 +1,86 @@
+package com.bookstore.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.bookstore.dto.OrderIntakeStatus;
+import com.bookstore.dto.OrderIntakeStatus.State;
+import com.bookstore.exception.ServiceBusyException;
+import com.bookstore.security.JwtUtil;
+import com.bookstore.service.OrderIntake;
+
+@SpringBootTest(properties = "order.intake.enabled=true")
+@AutoConfigureMockMvc
+class OrderIntakeControllerTest {
+
+    private static final String ORDER = "{\"items\":[{\"bookId\":1,\"quantity\":1}]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private OrderIntake orderIntake;
+
+    @Test
+    void queuedOrderIsAcceptedWithATicket() throws Exception {
+
+        when(orderIntake.submit(any(), eq("buyer@test.com"), isNull()))
+                .thenReturn(new OrderIntakeStatus("t-1", State.QUEUED, null, "Order queued"));
+
+        mockMvc.perform(placeOrder())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/orders/intake/t-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void idempotencyKeyIsPassedToTheIntake() throws Exception {
+
+        when(orderIntake.submit(any(), eq("buyer@test.com"), eq("key-1")))
+                .thenReturn(new OrderIntakeStatus("t-1", State.QUEUED, null, "Order queued"));
+
+        mockMvc.perform(placeOrder().header("Idempotency-Key", "key-1"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/orders/intake/t-1"));
+    }
+
+    @Test
+    void fullQueueAnswersServiceUnavailableWithRetryAfter() throws Exception {
+
+        when(orderIntake.submit(any(), any(), any()))
+                .thenThrow(new ServiceBusyException("Order intake is full, retry later", 2));
+
+        mockMvc.perform(placeOrder())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    private MockHttpServletRequestBuilder placeOrder() {
+        String token = jwtUtil.generateToken(
+                new User("buyer@test.com", "", AuthorityUtils.createAuthorityList("ROLE_USER")));
+        return post("/orders")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ORDER);
+    }
+}
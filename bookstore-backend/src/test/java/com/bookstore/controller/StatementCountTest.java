@@ -0,0 +1,158 @@
+package com.bookstore.controller;
+
+import static com.bookstore.sql.SqlStatements.count;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.security.JwtUtil;
+import com.bookstore.service.BookCache;
+
+/**
+ * Exact SQL statement counts per endpoint, so an N+1 or an extra round trip
+ * fails the build instead of showing up in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private Book book;
+    private String userToken;
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        bookCache.evictAll();
+
+        book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 100));
+        userToken = token("reader@test.com", "ROLE_USER");
+        adminToken = token("admin@test.com", "ROLE_ADMIN");
+    }
+
+    @Test
+    void catalogReads() throws Exception {
+
+        mockMvc.perform(get("/books").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(count(1));
+
+        // cold, then served from BookCache
+        mockMvc.perform(get("/books/" + book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(count(1));
+        mockMvc.perform(get("/books/" + book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(count(0));
+
+        mockMvc.perform(get("/books/search").param("q", "dune"))
+                .andExpect(status().isOk())
+                .andExpect(count(0));
+
+        // matched in the search index, the books themselves from BookCache
+        mockMvc.perform(get("/books/search/title").param("title", "dune"))
+                .andExpect(status().isOk())
+                .andExpect(count(0));
+        mockMvc.perform(get("/books/search/author").param("author", "herbert"))
+                .andExpect(status().isOk())
+                .andExpect(count(0));
+        mockMvc.perform(get("/books/search/genre").param("genre", "sci-fi"))
+                .andExpect(status().isOk())
+                .andExpect(count(0));
+    }
+
+    @Test
+    void checkoutAndOrderReads() throws Exception {
+
+        String placed = mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"bookId\":" + book.getId() + ",\"quantity\":2}]}"))
+                .andExpect(status().isOk())
+                .andExpect(count(4))
+                .andReturn().getResponse().getContentAsString();
+        String orderId = placed.replaceAll(".*\"orderId\":(\\d+).*", "$1");
+
+        mockMvc.perform(get("/orders/my").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(count(2));
+
+        // only the order; its items are fetched when the PDF is rendered, after the
+        // handler returns, off the request thread
+        MvcResult invoice = mockMvc.perform(get("/orders/" + orderId + "/invoice")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(count(1))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(invoice)).andExpect(status().isOk());
+
+        // rendered and cached now: still only the order
+        mockMvc.perform(get("/orders/" + orderId + "/invoice").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(count(1));
+
+        mockMvc.perform(put("/orders/" + orderId + "/status")
+                        .param("status", "SHIPPED")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(count(3));
+
+        mockMvc.perform(put("/orders/" + orderId + "/payment")
+                        .param("paymentStatus", "PAID")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(count(3));
+    }
+
+    @Test
+    void cancel() throws Exception {
+
+        String placed = mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"bookId\":" + book.getId() + ",\"quantity\":1}]}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String orderId = placed.replaceAll(".*\"orderId\":(\\d+).*", "$1");
+
+        mockMvc.perform(put("/orders/" + orderId + "/cancel").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(count(5));
+    }
+
+    private String token(String email, String role) {
+        return jwtUtil.generateToken(new User(email, "", AuthorityUtils.createAuthorityList(role)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.bookstore.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.dto.ImportReport;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.search.CatalogSearchService;
+import com.bookstore.service.BookImportService;
+import com.bookstore.service.BookImportService.Format;
+
+/**
+ * Rows per minute through the catalog import, for a CSV and an NDJSON file
+ * of the same books, at the configured catalog.import.batch-size.
+ *
+ *   mvn -Pload-test test -Dtest=BookImportLoadTest
+ *
+ * Tunable with -Dload.import-rows.
+ */
+@Tag("load")
+@SpringBootTest
+class BookImportLoadTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    private final int rows = Integer.getInteger("load.import-rows", 200_000);
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        catalogSearchService.rebuild();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Format.class)
+    void importRate(Format format) throws Exception {
+
+        StringBuilder file = new StringBuilder(format == Format.CSV ? "title,author,genre,price,stock\n" : "");
+        for (int i = 0; i < rows; i++) {
+            if (format == Format.CSV) {
+                file.append("Book ").append(i).append(",Author ").append(i % 100).append(",Genre,9.99,5\n");
+            } else {
+                file.append("{\"title\":\"Book ").append(i).append("\",\"author\":\"Author ").append(i % 100)
+                        .append("\",\"genre\":\"Genre\",\"price\":9.99,\"stock\":5}\n");
+            }
+        }
+        byte[] content = file.toString().getBytes(StandardCharsets.UTF_8);
+
+        long started = System.nanoTime();
+        ImportReport report = bookImportService.importBooks(new ByteArrayInputStream(content), format);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        assertEquals(rows, report.getInserted());
+        System.out.printf("%n=== import (%s), %d rows ===%nrows/min %.0f, %.2f s%n",
+                format, rows, rows * 60 / seconds, seconds);
+    }
+}
@@ -0,0 +1,179 @@
+package com.bookstore.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderItem;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+import com.bookstore.service.InvoiceCache;
+import com.bookstore.service.InvoiceService;
+
+/**
+ * Invoice downloads of large orders, three ways, with the same number of
+ * concurrent clients:
+ *
+ * - buffered: the original endpoint, a ByteArrayOutputStream copied with
+ *   toByteArray() into a ResponseEntity<byte[]>
+ * - streamed: rendered straight into the response, every time
+ * - cached: the production path through InvoiceCache
+ *
+ * Each client discards what it downloads. Reported per mode: downloads/s,
+ * bytes allocated per download and per second by the clients, and the
+ * collections and GC time during the measured window.
+ *
+ *   mvn -Pload-test test -Dtest=InvoiceLoadTest
+ *
+ * Tunable with -Dload.clients, -Dload.seconds, -Dload.warmup-seconds,
+ * -Dload.invoice-orders and -Dload.invoice-items (lines per order).
+ */
+@Tag("load")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class InvoiceLoadTest {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceCache invoiceCache;
+
+    private final int clients = Integer.getInteger("load.clients", 16);
+    private final int seconds = Integer.getInteger("load.seconds", 20);
+    private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 5);
+    private final int orderCount = Integer.getInteger("load.invoice-orders", 50);
+    private final int items = Integer.getInteger("load.invoice-items", 1000);
+
+    private List<Order> orders;
+
+    @BeforeAll
+    void seed() {
+        orders = new ArrayList<>(orderCount);
+        for (long id = 1; id <= orderCount; id++) {
+            orders.add(order(id));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"buffered", "streamed", "cached"})
+    void download(String mode) throws Exception {
+
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int c = 0; c < clients; c++) {
+                Random random = new Random(c);
+                results.add(pool.submit(() -> {
+                    OutputStream client = OutputStream.nullOutputStream();
+                    long downloads = 0;
+                    long allocatedFrom = -1;
+                    while (System.nanoTime() < end) {
+                        if (allocatedFrom < 0 && System.nanoTime() >= measureFrom) {
+                            allocatedFrom = THREADS.getCurrentThreadAllocatedBytes();
+                        }
+                        download(mode, orders.get(random.nextInt(orders.size())), client);
+                        if (allocatedFrom >= 0) {
+                            downloads++;
+                        }
+                    }
+                    long allocated = allocatedFrom < 0 ? 0 : THREADS.getCurrentThreadAllocatedBytes() - allocatedFrom;
+                    return new long[]{downloads, allocated};
+                }));
+            }
+
+            Thread.sleep(Math.max(0, (measureFrom - System.nanoTime()) / 1_000_000));
+            long[] gcFrom = gc();
+
+            long downloads = 0;
+            long allocated = 0;
+            for (Future<long[]> result : results) {
+                long[] client = result.get();
+                downloads += client[0];
+                allocated += client[1];
+            }
+            long[] gcTo = gc();
+
+            System.out.printf("%n=== invoice download (%s), %d clients, %d lines per order ===%n"
+                            + "downloads/s %.1f, %.1f KB allocated per download, %.1f MB/s allocated, "
+                            + "%d GCs, %d ms GC time%n",
+                    mode, clients, items,
+                    downloads / (double) seconds,
+                    downloads == 0 ? 0 : allocated / 1024.0 / downloads,
+                    allocated / 1024.0 / 1024.0 / seconds,
+                    gcTo[0] - gcFrom[0], gcTo[1] - gcFrom[1]);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void download(String mode, Order order, OutputStream client) throws Exception {
+        switch (mode) {
+            case "buffered" -> {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                invoiceService.writeInvoice(order, baos);
+                ResponseEntity<byte[]> response = ResponseEntity.ok()
+                        .header("Content-Disposition", "attachment; filename=invoice_" + order.getId() + ".pdf")
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .body(baos.toByteArray());
+                client.write(response.getBody());
+            }
+            case "streamed" -> invoiceService.writeInvoice(order, client);
+            default -> invoiceCache.write(order, client, out -> invoiceService.writeInvoice(order, out));
+        }
+    }
+
+    // Collections and milliseconds spent collecting, over every collector
+    private static long[] gc() {
+        long[] totals = new long[2];
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(0, collector.getCollectionCount());
+            totals[1] += Math.max(0, collector.getCollectionTime());
+        }
+        return totals;
+    }
+
+    private Order order(long id) {
+
+        Order order = new Order();
+        order.setId(id);
+        order.setUserEmail("buyer" + id + "@load.test");
+        order.setOrderDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+        order.setPaymentStatus(PaymentStatus.PAID);
+        order.setOrderStatus(OrderStatus.PLACED);
+
+        List<OrderItem> orderItems = new ArrayList<>(items);
+        for (long i = 1; i <= items; i++) {
+            orderItems.add(new OrderItem(i, i, 2, 9.99, order));
+        }
+        order.setOrderItems(orderItems);
+        order.setTotalAmount(items * 2 * 9.99);
+        return order;
+    }
+}
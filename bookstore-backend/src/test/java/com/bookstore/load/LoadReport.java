@@ -0,0 +1,91 @@
+package com.bookstore.load;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latencies and errors per operation. Each client records into its own
+ * report and the reports are merged once the run is over.
+ */
+class LoadReport {
+
+    private final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+
+    void record(Operation operation, long nanos, boolean ok) {
+        Samples s = samples.computeIfAbsent(operation, op -> new Samples());
+        s.add(nanos);
+        if (!ok) {
+            s.errors++;
+        }
+    }
+
+    void merge(LoadReport other) {
+        other.samples.forEach((operation, s) -> samples.computeIfAbsent(operation, op -> new Samples()).addAll(s));
+    }
+
+    long errors() {
+        return samples.values().stream().mapToLong(s -> s.errors).sum();
+    }
+
+    long requests() {
+        return samples.values().stream().mapToLong(s -> s.size).sum();
+    }
+
+    String format(String title, double seconds, StatementCounter statementCounter) {
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n=== %s ===%n", title));
+        out.append(String.format("%-14s %8s %9s %9s %9s %9s %7s %9s%n",
+                "operation", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors", "sql/req"));
+
+        Samples total = new Samples();
+        long totalStatements = 0;
+        for (Map.Entry<Operation, Samples> entry : samples.entrySet()) {
+            long statements = statementCounter.statements(entry.getKey().name());
+            totalStatements += statements;
+            total.addAll(entry.getValue());
+            row(out, entry.getKey().name(), entry.getValue(), seconds, statements);
+        }
+        row(out, "TOTAL", total, seconds, totalStatements);
+        return out.toString();
+    }
+
+    private static void row(StringBuilder out, String name, Samples s, double seconds, long statements) {
+        long[] sorted = Arrays.copyOf(s.nanos, s.size);
+        Arrays.sort(sorted);
+        out.append(String.format("%-14s %8d %9.1f %9.2f %9.2f %9.2f %7d %9.2f%n",
+                name, s.size, s.size / seconds,
+                millis(sorted, 0.50), millis(sorted, 0.99), millis(sorted, 0.999),
+                s.errors, s.size == 0 ? 0.0 : (double) statements / s.size));
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i]);
+            }
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.bookstore.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.User;
+import com.bookstore.repository.BookBatchRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.UserRepository;
+import com.bookstore.search.CatalogSearchService;
+import com.bookstore.service.BookCache;
+import com.bookstore.service.OrderService;
+/**
+ * End-to-end load test: starts the application on an embedded database
+ * (H2 in MySQL mode), seeds a catalog and a user base, then drives each
+ * scripted {@link Mix} over HTTP and prints throughput, p50/p99/p999 latency
+ * and SQL statements per request for every operation.
+ *
+ *   mvn -Pload-test test            (platform threads)
+ *   mvn -Pjava21,load-test test     (platform, then virtual threads; needs a JDK 21)
+ *
+ * This class always runs on platform threads; {@link VirtualThreadLoadTest}
+ * repeats the same mixes on virtual threads when the JDK has them, so one
+ * run prints both reports for comparison.
+ *
+ * Tunable with -Dload.books, -Dload.users, -Dload.clients, -Dload.seconds
+ * and -Dload.warmup-seconds; -Dload.mix=CHECKOUT_HEAVY runs a single mix.
+ * Requests made during the warm-up are not counted.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=false")
+@Import(LoadTestConfiguration.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoadTest {
+
+    private static final String PASSWORD = "password";
+    private static final String ADMIN = "admin@load.test";
+    private static final int ORDERS_PER_USER = 2;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookBatchRepository bookBatchRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private Environment environment;
+
+    private final int clients = Integer.getInteger("load.clients", 64);
+    private final int seconds = Integer.getInteger("load.seconds", 20);
+    private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 5);
+
+    private List<Long> bookIds;
+    private List<String> emails;
+    private final Map<String, List<Long>> ordersByUser = new ConcurrentHashMap<>();
+
+    @BeforeAll
+    void seed() {
+
+        int books = Integer.getInteger("load.books", 1000);
+        int users = Integer.getInteger("load.users", 50);
+
+        List<Book> catalog = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            catalog.add(new Book(null, "Book " + i, "Author " + i % 100, "Genre " + i % 10, 5.0 + i % 40, 1_000_000));
+        }
+        bookBatchRepository.insertAll(catalog);
+        catalogSearchService.rebuild();
+        bookCache.evictAll();
+        bookIds = bookRepository.findAll().stream().map(Book::getId).toList();
+
+        // One hash for everyone; BCrypt per user would dominate the set-up
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<User> accounts = new ArrayList<>();
+        for (int i = 0; i <= users; i++) {
+            User user = new User();
+            user.setName(i == users ? "Admin" : "User " + i);
+            user.setEmail(i == users ? ADMIN : "user" + i + "@load.test");
+            user.setPassword(hash);
+            user.setRole(i == users ? "ROLE_ADMIN" : "ROLE_USER");
+            accounts.add(user);
+        }
+        userRepository.saveAll(accounts);
+        emails = accounts.subList(0, users).stream().map(User::getEmail).toList();
+
+        // Every user starts with a few orders so invoices and status updates have targets
+        List<Long> allOrders = new ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            List<Long> orders = new ArrayList<>();
+            for (int n = 0; n < ORDERS_PER_USER; n++) {
+                orders.add(orderService.placeOrder(order(bookIds.get((i + n) % bookIds.size())), emails.get(i)).getId());
+            }
+            ordersByUser.put(emails.get(i), orders);
+            allOrders.addAll(orders);
+        }
+        ordersByUser.put(ADMIN, allOrders);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mix.class)
+    void mix(Mix mix) throws Exception {
+
+        String only = System.getProperty("load.mix");
+        assumeTrue(only == null || only.isBlank() || only.equalsIgnoreCase(mix.name()));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<VirtualUser> users = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            String email = mix.admin ? ADMIN : emails.get(i % emails.size());
+            VirtualUser user = new VirtualUser("http://localhost:" + port, email, PASSWORD,
+                    bookIds, ordersByUser.get(email), 31L * i + mix.ordinal());
+            send(client, user, Operation.LOGIN, null);
+            users.add(user);
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(warmupSeconds).toNanos();
+        long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<LoadReport>> results = new ArrayList<>();
+        try {
+            for (VirtualUser user : users) {
+                results.add(pool.submit(() -> {
+                    LoadReport report = new LoadReport();
+                    boolean measuring = false;
+                    while (System.nanoTime() < end) {
+                        if (!measuring && System.nanoTime() >= measureFrom) {
+                            measuring = true;
+                            report = new LoadReport();
+                        }
+                        send(client, user, mix.next(user.random), report);
+                    }
+                    return report;
+                }));
+            }
+
+            Thread.sleep(Duration.ofSeconds(warmupSeconds).toMillis());
+            statementCounter.reset();
+
+            LoadReport total = new LoadReport();
+            for (Future<LoadReport> result : results) {
+                total.merge(result.get());
+            }
+
+            String threads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                    ? "virtual" : "platform";
+            System.out.println(total.format(mix + ", " + clients + " clients, " + threads + " threads, "
+                    + Runtime.version(), seconds, statementCounter));
+
+            assertTrue(total.requests() > 0, "no requests completed");
+            assertTrue(total.errors() * 100 <= total.requests(), total.errors() + " errors");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void send(HttpClient client, VirtualUser user, Operation operation, LoadReport report) {
+
+        HttpRequest request = HttpRequest.newBuilder(operation.request(user), (name, value) -> true)
+                .header(StatementCounter.OPERATION_HEADER, operation.name())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long started = System.nanoTime();
+        boolean ok;
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            ok = response.statusCode() < 400;
+            if (ok) {
+                operation.completed(user, response.body());
+            }
+        } catch (Exception e) {
+            ok = false;
+        }
+
+        if (report != null) {
+            report.record(operation, System.nanoTime() - started, ok);
+        }
+    }
+
+    private static OrderRequest order(Long bookId) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setBookId(bookId);
+        item.setQuantity(1);
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+}
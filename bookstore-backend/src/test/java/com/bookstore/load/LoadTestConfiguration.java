@@ -0,0 +1,25 @@
+package com.bookstore.load;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+import jakarta.servlet.Filter;
+
+@TestConfiguration(proxyBeanMethods = false)
+class LoadTestConfiguration {
+
+    @Bean
+    StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    // Outside SqlStatementFilter, so its count is set when this filter reads it
+    @Bean
+    FilterRegistrationBean<Filter> statementCountingFilter(StatementCounter statementCounter) {
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(statementCounter.filter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,52 @@
+package com.bookstore.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+// Scripted workloads: each operation's share of the requests, in percent
+enum Mix {
+
+    BROWSE_HEAVY(false, Map.of(
+            Operation.GET_BOOK, 45,
+            Operation.LIST_BOOKS, 25,
+            Operation.SEARCH, 20,
+            Operation.PLACE_ORDER, 5,
+            Operation.MY_ORDERS, 3,
+            Operation.LOGIN, 1,
+            Operation.REFRESH, 1)),
+
+    CHECKOUT_HEAVY(false, Map.of(
+            Operation.GET_BOOK, 20,
+            Operation.PLACE_ORDER, 40,
+            Operation.MY_ORDERS, 20,
+            Operation.INVOICE, 15,
+            Operation.LOGIN, 2,
+            Operation.REFRESH, 3)),
+
+    ADMIN_BULK(true, Map.of(
+            Operation.IMPORT_BOOKS, 15,
+            Operation.UPDATE_STATUS, 35,
+            Operation.INVOICE, 30,
+            Operation.LIST_BOOKS, 20));
+
+    final boolean admin;
+    private final Operation[] wheel = new Operation[100];
+
+    Mix(boolean admin, Map<Operation, Integer> weights) {
+        this.admin = admin;
+        int slot = 0;
+        for (Map.Entry<Operation, Integer> entry : new EnumMap<>(weights).entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                wheel[slot++] = entry.getKey();
+            }
+        }
+        if (slot != wheel.length) {
+            throw new IllegalStateException(name() + " weights must add up to 100");
+        }
+    }
+
+    Operation next(Random random) {
+        return wheel[random.nextInt(wheel.length)];
+    }
+}
@@ -0,0 +1,156 @@
+package com.bookstore.load;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The requests a virtual user can make, one per endpoint under test
+enum Operation {
+
+    LOGIN {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            return json(user, "/auth/login", "{\"email\":\"" + user.email + "\",\"password\":\"" + user.password + "\"}")
+                    .build();
+        }
+
+        @Override
+        void completed(VirtualUser user, byte[] body) {
+            tokens(user, body);
+        }
+    },
+
+    // Renews the access token without a password check
+    REFRESH {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            return user.refreshToken == null ? LOGIN.request(user)
+                    : json(user, "/auth/refresh", "{\"refreshToken\":\"" + user.refreshToken + "\"}").build();
+        }
+
+        @Override
+        void completed(VirtualUser user, byte[] body) {
+            tokens(user, body);
+        }
+    },
+
+    GET_BOOK {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            return HttpRequest.newBuilder(user.uri("/books/" + user.randomBook())).GET().build();
+        }
+    },
+
+    LIST_BOOKS {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            String sort = SORTS[user.random.nextInt(SORTS.length)];
+            return HttpRequest.newBuilder(user.uri("/books?page=" + user.random.nextInt(20)
+                    + "&size=20&sortBy=" + sort)).GET().build();
+        }
+    },
+
+    SEARCH {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            return HttpRequest.newBuilder(user.uri("/books/search?q=book+" + user.random.nextInt(100)))
+                    .GET().build();
+        }
+    },
+
+    PLACE_ORDER {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            StringBuilder items = new StringBuilder();
+            int lines = 1 + user.random.nextInt(3);
+            for (int i = 0; i < lines; i++) {
+                items.append(i == 0 ? "" : ",")
+                        .append("{\"bookId\":").append(user.randomBook()).append(",\"quantity\":1}");
+            }
+            return authorized(user, json(user, "/orders", "{\"items\":[" + items + "]}")).build();
+        }
+
+        @Override
+        void completed(VirtualUser user, byte[] body) {
+            Matcher matcher = ORDER_ID.matcher(new String(body, StandardCharsets.UTF_8));
+            if (matcher.find()) {
+                user.addOrder(Long.valueOf(matcher.group(1)));
+            }
+        }
+    },
+
+    MY_ORDERS {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            return authorized(user, HttpRequest.newBuilder(user.uri("/orders/my?page=0&size=20")).GET()).build();
+        }
+    },
+
+    INVOICE {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            Long orderId = user.randomOrder();
+            return orderId == null ? PLACE_ORDER.request(user)
+                    : authorized(user, HttpRequest.newBuilder(user.uri("/orders/" + orderId + "/invoice")).GET())
+                            .build();
+        }
+    },
+
+    IMPORT_BOOKS {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                rows.append("{\"title\":\"Imported ").append(user.random.nextInt(1_000_000))
+                        .append("\",\"author\":\"Supplier\",\"genre\":\"Import\",\"price\":4.5,\"stock\":10}\n");
+            }
+            return authorized(user, HttpRequest.newBuilder(user.uri("/books/import"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(BodyPublishers.ofString(rows.toString()))).build();
+        }
+    },
+
+    UPDATE_STATUS {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            Long orderId = user.randomOrder();
+            String status = user.random.nextBoolean() ? "SHIPPED" : "PLACED";
+            return orderId == null ? PLACE_ORDER.request(user)
+                    : authorized(user, HttpRequest.newBuilder(user.uri("/orders/" + orderId + "/status?status=" + status))
+                            .PUT(BodyPublishers.noBody())).build();
+        }
+    };
+
+    private static final String[] SORTS = {"id", "title", "price"};
+    private static final Pattern ORDER_ID = Pattern.compile("\"orderId\":(\\d+)");
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\":\"([^\"]+)\"");
+    private static final Pattern REFRESH_TOKEN = Pattern.compile("\"refreshToken\":\"([^\"]+)\"");
+
+    abstract HttpRequest request(VirtualUser user);
+
+    // Called with the body of a successful response
+    void completed(VirtualUser user, byte[] body) {
+    }
+
+    private static void tokens(VirtualUser user, byte[] body) {
+        String json = new String(body, StandardCharsets.UTF_8);
+        Matcher access = ACCESS_TOKEN.matcher(json);
+        Matcher refresh = REFRESH_TOKEN.matcher(json);
+        if (access.find() && refresh.find()) {
+            user.token = access.group(1);
+            user.refreshToken = refresh.group(1);
+        }
+    }
+
+    private static HttpRequest.Builder json(VirtualUser user, String path, String body) {
+        return HttpRequest.newBuilder(user.uri(path))
+                .header("Content-Type", "application/json")
+                .POST(BodyPublishers.ofString(body));
+    }
+
+    private static HttpRequest.Builder authorized(VirtualUser user, HttpRequest.Builder builder) {
+        return builder.header("Authorization", "Bearer " + user.token);
+    }
+}
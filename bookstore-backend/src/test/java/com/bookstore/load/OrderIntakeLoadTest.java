@@ -0,0 +1,145 @@
+package com.bookstore.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.dto.OrderIntakeStatus;
+import com.bookstore.dto.OrderIntakeStatus.State;
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.service.OrderIntake;
+import com.bookstore.service.OrderService;
+
+/**
+ * Orders per second through the synchronous checkout and through the
+ * asynchronous intake, with the same number of concurrent buyers. Each
+ * buyer waits for its order to be placed before sending the next one, so
+ * the async figures include the time spent queued.
+ *
+ *   mvn -Pload-test test -Dtest=OrderIntakeLoadTest
+ *
+ * Tunable with -Dload.clients, -Dload.seconds and -Dload.warmup-seconds.
+ */
+@Tag("load")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderIntakeLoadTest {
+
+    private static final int BOOKS = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIntake orderIntake;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final int clients = Integer.getInteger("load.clients", 64);
+    private final int seconds = Integer.getInteger("load.seconds", 20);
+    private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 5);
+
+    private List<Long> bookIds;
+
+    @BeforeAll
+    void seed() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Book(null, "Book " + i, "Author " + i, "Genre", 9.99, 10_000_000));
+        }
+        bookIds = bookRepository.saveAll(books).stream().map(Book::getId).toList();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sync", "async"})
+    void checkout(String path) throws Exception {
+
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int c = 0; c < clients; c++) {
+                String email = "buyer" + c + "@load.test";
+                Random random = new Random(c);
+                results.add(pool.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        long started = System.nanoTime();
+                        place(path, order(random), email);
+                        if (started >= measureFrom) {
+                            if (count == latencies.length) {
+                                latencies = Arrays.copyOf(latencies, count * 2);
+                            }
+                            latencies[count++] = System.nanoTime() - started;
+                        }
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] latencies = result.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            Arrays.sort(all);
+
+            System.out.printf("%n=== checkout (%s), %d clients ===%norders/s %.1f, p50 %.2f ms, p99 %.2f ms%n",
+                    path, clients, all.length / (double) seconds, percentile(all, 0.50), percentile(all, 0.99));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void place(String path, OrderRequest request, String email) throws Exception {
+        if (path.equals("sync")) {
+            orderService.placeOrder(request, email);
+            return;
+        }
+        OrderIntakeStatus queued = orderIntake.submit(request, email);
+        OrderIntakeStatus done = orderIntake.awaitStatus(queued.getTicket(), email, Duration.ofSeconds(30))
+                .get(31, TimeUnit.SECONDS);
+        assertEquals(State.PLACED, done.getStatus(), done.getMessage());
+    }
+
+    private OrderRequest order(Random random) {
+        OrderRequest request = new OrderRequest();
+        request.setItems(new ArrayList<>());
+        for (int i = 0, lines = 1 + random.nextInt(3); i < lines; i++) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setBookId(bookIds.get(random.nextInt(bookIds.size())));
+            item.setQuantity(1);
+            request.getItems().add(item);
+        }
+        return request;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bookstore.load;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.bookstore.sql.SqlStatementFilter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Sums JDBC statements per load-test operation.
+ *
+ * {@link SqlStatementFilter} counts the statements of every request; this
+ * filter runs around it and adds that count to the operation named in the
+ * {@code X-Load-Op} header. A JDBC batch counts once. Work done off the
+ * request thread, like the streamed invoice body, is not attributed.
+ */
+class StatementCounter {
+
+    static final String OPERATION_HEADER = "X-Load-Op";
+
+    private final Map<String, LongAdder> statements = new ConcurrentHashMap<>();
+
+    Filter filter() {
+        return (ServletRequest request, ServletResponse response, FilterChain chain) -> {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                String operation = ((HttpServletRequest) request).getHeader(OPERATION_HEADER);
+                Object count = request.getAttribute(SqlStatementFilter.STATEMENTS_ATTRIBUTE);
+                if (operation != null && count instanceof Long value) {
+                    statements.computeIfAbsent(operation, op -> new LongAdder()).add(value);
+                }
+            }
+        };
+    }
+
+    long statements(String operation) {
+        LongAdder count = statements.get(operation);
+        return count == null ? 0 : count.sum();
+    }
+
+    void reset() {
+        statements.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package com.bookstore.load;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * {@link LoadTest} on virtual threads: the same seed and mixes, against its
+ * own in-memory database, so its report can be set beside the platform-thread
+ * one. Needs a JDK 21; skipped on older runtimes, where Spring would quietly
+ * stay on platform threads.
+ *
+ *   mvn -Pjava21,load-test test
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:bookstore_load_virtual;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER"})
+@Import(LoadTestConfiguration.class)
+class VirtualThreadLoadTest extends LoadTest {
+}
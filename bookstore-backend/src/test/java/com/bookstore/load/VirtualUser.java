@@ -0,0 +1,49 @@
+package com.bookstore.load;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Random;
+
+// One simulated client: its credentials, tokens and the orders it can see
+class VirtualUser {
+
+    final String baseUrl;
+    final String email;
+    final String password;
+    final List<Long> bookIds;
+    final List<Long> orderIds;
+    final Random random;
+
+    String token;
+    String refreshToken;
+
+    VirtualUser(String baseUrl, String email, String password, List<Long> bookIds, List<Long> orderIds, long seed) {
+        this.baseUrl = baseUrl;
+        this.email = email;
+        this.password = password;
+        this.bookIds = bookIds;
+        this.orderIds = orderIds;
+        this.random = new Random(seed);
+    }
+
+    URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    Long randomBook() {
+        return bookIds.get(random.nextInt(bookIds.size()));
+    }
+
+    // null until the user has placed or been given an order
+    Long randomOrder() {
+        synchronized (orderIds) {
+            return orderIds.isEmpty() ? null : orderIds.get(random.nextInt(orderIds.size()));
+        }
+    }
+
+    void addOrder(Long orderId) {
+        synchronized (orderIds) {
+            orderIds.add(orderId);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bookstore.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.bookstore.dto.BookCursor;
+import com.bookstore.entity.Book;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BookRepositoryKeysetTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void seed() {
+        // duplicate and null sort keys are the cases a naive seek gets wrong
+        String[] titles = {"Emma", "Dune", null, "Emma", "Beloved", null, "Dune", "Atonement", "Emma"};
+        for (int i = 0; i < titles.length; i++) {
+            bookRepository.save(new Book(null, titles[i], "Author", "Genre", 10.0 + (i % 3), i));
+        }
+    }
+
+    @Test
+    void walkingAllPagesVisitsEveryBookOnceInOrder() {
+        for (String sortBy : List.of("id", "title", "price")) {
+            for (boolean descending : List.of(false, true)) {
+                assertEquals(expectedOrder(sortBy, descending), walk(sortBy, descending, 2),
+                        sortBy + (descending ? " desc" : " asc"));
+            }
+        }
+    }
+
+    private List<Long> walk(String sortBy, boolean descending, int size) {
+
+        List<Long> seen = new ArrayList<>();
+        BookCursor cursor = new BookCursor(sortBy, descending, null, null);
+
+        while (true) {
+            List<Book> page = bookRepository.findPageAfter(sortBy, descending,
+                    cursor.getLastValue(), cursor.getLastId(), size);
+            page.forEach(book -> seen.add(book.getId()));
+            if (page.size() < size) {
+                return seen;
+            }
+            // round-trip through the opaque token like a client would
+            cursor = BookCursor.decode(BookCursor.after(page.get(size - 1), sortBy, descending).encode());
+        }
+    }
+
+    private List<Long> expectedOrder(String sortBy, boolean descending) {
+
+        Comparator<Book> byKey = switch (sortBy) {
+            case "title" -> Comparator.comparing(Book::getTitle, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "price" -> Comparator.comparingDouble(Book::getPrice);
+            default -> Comparator.comparing(Book::getId);
+        };
+        Comparator<Book> order = byKey.thenComparing(Book::getId);
+
+        return bookRepository.findAll().stream()
+                .sorted(descending ? order.reversed() : order)
+                .map(Book::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,90 @@
+package com.bookstore.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.entity.Book;
+import com.bookstore.entity.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedBookLookupsStopProducingSql() {
+
+        Long id = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 5)).getId();
+        bookRepository.findById(id);
+
+        statistics.clear();
+        for (int i = 0; i < 5; i++) {
+            bookRepository.findById(id).orElseThrow();
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void repeatedUserLookupsByEmailStopProducingSql() {
+
+        User user = new User();
+        user.setName("Reader");
+        user.setEmail("cached@test.com");
+        user.setPassword("secret");
+        user.setRole("USER");
+        userRepository.save(user);
+        userRepository.findByEmail("cached@test.com");
+
+        statistics.clear();
+        for (int i = 0; i < 5; i++) {
+            userRepository.findByEmail("cached@test.com").orElseThrow();
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        userRepository.delete(user);
+    }
+
+    @Test
+    void jdbcStockUpdatesEvictTheCachedBook() {
+
+        Long id = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 5)).getId();
+        bookRepository.findById(id);
+
+        bookStockRepository.decrementStock(Map.of(id, 2));
+
+        assertEquals(3, bookRepository.findById(id).orElseThrow().getStock());
+    }
+}
@@ -0,0 +1,61 @@
+package com.bookstore.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.search.CatalogSearchIndex.Field;
+
+class CatalogSearchIndexTest {
+
+    private final CatalogSearchIndex index = new CatalogSearchIndex();
+
+    @BeforeEach
+    void seed() {
+        index.index(1L, "The Hobbit", "J.R.R. Tolkien", "Fantasy");
+        index.index(2L, "The Lord of the Rings", "J.R.R. Tolkien", "Fantasy");
+        index.index(3L, "Hobbits and Humans", "Some Scholar", "Essay");
+        index.index(4L, "Dune", "Frank Herbert", "Sci-Fi");
+    }
+
+    @Test
+    void titleSearchMatchesSubstringsLikeTheRepositoryQuery() {
+        assertEquals(List.of(3L, 1L), index.searchField(Field.TITLE, "HOBBIT", 0, 10).getBookIds());
+        assertEquals(List.of(2L), index.searchField(Field.TITLE, "lord of", 0, 10).getBookIds());
+        assertEquals(List.of(4L), index.searchField(Field.TITLE, "un", 0, 10).getBookIds());
+        assertEquals(List.of(), index.searchField(Field.TITLE, "silmarillion", 0, 10).getBookIds());
+    }
+
+    @Test
+    void genreSearchIsExact() {
+        assertEquals(List.of(1L, 2L), index.searchField(Field.GENRE, "fantasy", 0, 10).getBookIds());
+        assertEquals(List.of(), index.searchField(Field.GENRE, "fant", 0, 10).getBookIds());
+    }
+
+    @Test
+    void freeTextSearchRanksTitleMatchesFirstAndPaginates() {
+
+        SearchResult first = index.search("tolkien hobbit", 0, 1);
+
+        assertEquals(1, first.getTotal());
+        assertEquals(List.of(1L), first.getBookIds());
+
+        SearchResult fantasy = index.search("fantasy", 1, 1);
+        assertEquals(2, fantasy.getTotal());
+        assertEquals(List.of(2L), fantasy.getBookIds());
+    }
+
+    @Test
+    void updatesAndDeletesAreVisibleImmediately() {
+
+        index.index(4L, "Dune Messiah", "Frank Herbert", "Sci-Fi");
+        index.remove(1L);
+
+        assertEquals(List.of(4L), index.searchField(Field.TITLE, "messiah", 0, 10).getBookIds());
+        assertEquals(List.of(3L), index.searchField(Field.TITLE, "hobbit", 0, 10).getBookIds());
+        assertEquals(3, index.size());
+    }
+}
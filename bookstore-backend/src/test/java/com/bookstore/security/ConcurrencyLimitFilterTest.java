@@ -0,0 +1,128 @@
+package com.bookstore.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.bookstore.security.ConcurrencyLimitFilter.Lane;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void limitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+
+        AdaptiveLimit limit = new AdaptiveLimit(4, 2, 50, 2.0, 0.2);
+
+        for (int i = 0; i < 100; i++) {
+            fill(limit);
+            drain(limit, 10 * MS);
+        }
+        assertEquals(50, limit.limit());
+
+        for (int i = 0; i < 2; i++) {
+            fill(limit);
+            drain(limit, 100 * MS);
+        }
+        assertTrue(limit.limit() < 25, "limit " + limit.limit());
+    }
+
+    @Test
+    void idleLimitDoesNotGrow() {
+
+        AdaptiveLimit limit = new AdaptiveLimit(8, 2, 100, 2.0, 0.2);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MS);
+        }
+        assertEquals(8, limit.limit());
+    }
+
+    @Test
+    void requestsOverTheLaneLimitAreShed() throws Exception {
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(true, 2, 2, 2, 2, 2, 2, 2, 2.0, 0.2,
+                Duration.ofSeconds(3), new ObjectMapper().registerModule(new JavaTimeModule()), registry);
+
+        AdaptiveLimit admin = filter.limit(Lane.ADMIN);
+        fill(admin);
+
+        MockHttpServletResponse shed = run(filter, "GET", "/orders/1/invoice");
+        assertEquals(503, shed.getStatus());
+        assertEquals("3", shed.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("limiter.rejected").tag("lane", "admin").counter().count());
+
+        // Other lanes are unaffected
+        assertEquals(200, run(filter, "GET", "/books/1").getStatus());
+
+        drain(admin, MS);
+        assertEquals(200, run(filter, "GET", "/orders/1/invoice").getStatus());
+        assertEquals(0, admin.inFlight());
+    }
+
+    @Test
+    void longPollsKeepAFixedLimitAndStayOutOfCheckout() {
+
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(true, 2, 2, 2, 8, 2, 50, 2, 2.0, 0.2,
+                Duration.ofSeconds(1), new ObjectMapper(), new SimpleMeterRegistry());
+
+        AdaptiveLimit poll = filter.limit(Lane.POLL);
+        fill(poll);
+        drain(poll, 30_000 * MS);
+        assertEquals(50, poll.limit());
+
+        // the checkout lane saw none of those 30 s waits
+        assertEquals(0, filter.limit(Lane.CHECKOUT).inFlight());
+        assertEquals(2, filter.limit(Lane.CHECKOUT).limit());
+    }
+
+    @Test
+    void requestsAreSortedIntoLanes() {
+
+        assertEquals(Lane.BROWSE, ConcurrencyLimitFilter.laneOf("GET", "/books"));
+        assertEquals(Lane.BROWSE, ConcurrencyLimitFilter.laneOf("GET", "/books/search"));
+        assertEquals(Lane.ADMIN, ConcurrencyLimitFilter.laneOf("POST", "/books/import"));
+        assertEquals(Lane.AUTH, ConcurrencyLimitFilter.laneOf("POST", "/auth/login"));
+        assertEquals(Lane.POLL, ConcurrencyLimitFilter.laneOf("GET", "/orders/intake/t-1"));
+        assertEquals(Lane.CHECKOUT, ConcurrencyLimitFilter.laneOf("POST", "/orders"));
+        assertEquals(Lane.CHECKOUT, ConcurrencyLimitFilter.laneOf("GET", "/orders/my"));
+        assertEquals(Lane.ADMIN, ConcurrencyLimitFilter.laneOf("GET", "/orders/5/invoice"));
+        assertEquals(Lane.ADMIN, ConcurrencyLimitFilter.laneOf("PUT", "/orders/5/status"));
+    }
+
+    private static void fill(AdaptiveLimit limit) {
+        while (limit.tryAcquire()) {
+            // take every free slot
+        }
+    }
+
+    private static void drain(AdaptiveLimit limit, long latencyNanos) {
+        while (limit.inFlight() > 0) {
+            limit.release(latencyNanos);
+        }
+    }
+
+    private static MockHttpServletResponse run(ConcurrencyLimitFilter filter, String method, String path)
+            throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
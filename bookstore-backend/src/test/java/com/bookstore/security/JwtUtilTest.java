@@ -0,0 +1,39 @@
+package com.bookstore.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    void rolesTravelInsideTheToken() {
+
+        String token = jwtUtil.generateToken(new User("admin@test.com", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        Claims claims = jwtUtil.parseClaims(token);
+
+        assertEquals("admin@test.com", claims.getSubject());
+        assertEquals(List.of("ROLE_ADMIN"), jwtUtil.extractRoles(claims));
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+
+        String foreign = new JwtUtil().generateToken(new User("someone@test.com", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(foreign));
+    }
+}
@@ -0,0 +1,67 @@
+package com.bookstore.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.entity.RevokedToken;
+import com.bookstore.repository.RevokedTokenRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TokenDenylistTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final TokenDenylist denylist = new TokenDenylist(repository, Duration.ofMinutes(1), 1 << 16,
+            new SimpleMeterRegistry());
+
+    @Test
+    void revokedTokenIsDeniedUntilItExpires() {
+
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(10));
+        denylist.revoke("jti-1", "reader@test.com", expiresAt);
+
+        assertTrue(denylist.isRevoked("jti-1"));
+        assertFalse(denylist.isRevoked("jti-2"));
+        verify(repository).save(any(RevokedToken.class));
+
+        denylist.expire(expiresAt.toEpochMilli() - 60_000);
+        assertTrue(denylist.isRevoked("jti-1"));
+
+        denylist.expire(expiresAt.toEpochMilli() + 60_000);
+        assertFalse(denylist.isRevoked("jti-1"));
+    }
+
+    @Test
+    void alreadyExpiredTokenIsNotStored() {
+
+        denylist.revoke("old", "reader@test.com", Instant.now().minusSeconds(1));
+
+        assertFalse(denylist.isRevoked("old"));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void revocationsAreReloadedAtStartup() {
+
+        RevokedToken stored = new RevokedToken();
+        stored.setJti("stored");
+        stored.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(stored));
+
+        denylist.load();
+
+        assertTrue(denylist.isRevoked("stored"));
+    }
+}
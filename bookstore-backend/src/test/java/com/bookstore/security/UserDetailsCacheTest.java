@@ -0,0 +1,46 @@
+package com.bookstore.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.bookstore.entity.User;
+import com.bookstore.repository.UserRepository;
+
+@SpringBootTest
+class UserDetailsCacheTest {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void roleChangeAndDeletionEvictTheCachedUser() {
+
+        User user = new User();
+        user.setName("Reader");
+        user.setEmail("cached@test.com");
+        user.setPassword("x");
+        user.setRole("ROLE_USER");
+        user = userRepository.save(user);
+
+        assertEquals("ROLE_USER", role());
+
+        user.setRole("ROLE_ADMIN");
+        user = userRepository.save(user);
+        assertEquals("ROLE_ADMIN", role());
+
+        userRepository.delete(user);
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("cached@test.com"));
+    }
+
+    private String role() {
+        return userDetailsCache.get("cached@test.com").getAuthorities().iterator().next().getAuthority();
+    }
+}
@@ -0,0 +1,80 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+class BookCacheTest {
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        bookCache.evictAll();
+    }
+
+    @Test
+    void repeatedReadsLoadOnce() {
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 5));
+        long loads = loads();
+
+        Book first = bookCache.get(book.getId()).orElseThrow().getBook();
+        Book second = bookCache.get(book.getId()).orElseThrow().getBook();
+
+        assertSame(first, second);
+        assertEquals(loads + 1, loads());
+    }
+
+    @Test
+    void placingAnOrderEvictsTheBook() {
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 1));
+        assertEquals(1, bookCache.get(book.getId()).orElseThrow().getBook().getStock());
+
+        OrderItemRequest item = new OrderItemRequest();
+        item.setBookId(book.getId());
+        item.setQuantity(1);
+        OrderRequest request = new OrderRequest();
+        request.setItems(new ArrayList<>(List.of(item)));
+        orderService.placeOrder(request, "buyer@test.com");
+
+        assertEquals(0, bookCache.get(book.getId()).orElseThrow().getBook().getStock());
+        assertEquals(0, bookCache.getAll(List.of(book.getId())).get(book.getId()).getStock());
+    }
+
+    private long loads() {
+        return meterRegistry.timer("catalog.cache.load").count();
+    }
+}
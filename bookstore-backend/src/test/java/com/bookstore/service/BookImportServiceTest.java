@@ -0,0 +1,139 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.dto.ImportReport;
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.search.CatalogSearchService;
+
+@SpringBootTest(properties = "catalog.import.batch-size=3")
+class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void csvImportInsertsUpdatesAndReportsBadRows() throws Exception {
+
+        Book existing = bookRepository.save(new Book(null, "Emma", "Jane Austen", "Classic", 5.0, 1));
+
+        String csv = String.join("\n",
+                "id,title,author,genre,price,stock",
+                ",Dune,Frank Herbert,Sci-Fi,10.5,4",
+                ",\"War, and Peace\",Leo Tolstoy,Classic,12,2",
+                existing.getId() + ",Emma,Jane Austen,Classic,6.5,9",
+                ",Broken,Nobody,None,abc,1",
+                "999999,Ghost,Nobody,None,1,1",
+                ",,No Title,None,1,1",
+                ",Ulysses,James Joyce,Classic,8,3");
+
+        ImportReport report = bookImportService.importBooks(stream(csv), BookImportService.Format.CSV);
+
+        assertEquals(3, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(3, report.getFailed());
+        assertEquals(5, report.getErrors().get(0).getLine());
+        assertEquals(6, report.getErrors().get(2).getLine());
+        assertEquals(7, report.getErrors().get(1).getLine());
+
+        assertEquals(4, bookRepository.count());
+        assertEquals(9, bookRepository.findById(existing.getId()).orElseThrow().getStock());
+        assertEquals(1, bookRepository.findByTitleContainingIgnoreCase("War, and Peace").size());
+    }
+
+    @Test
+    void ndjsonImport() throws Exception {
+
+        String ndjson = String.join("\n",
+                "{\"title\":\"Dune\",\"author\":\"Frank Herbert\",\"genre\":\"Sci-Fi\",\"price\":10.5,\"stock\":4}",
+                "{\"title\":\"Emma\",\"price\":-1,\"stock\":1}",
+                "not json");
+
+        ImportReport report = bookImportService.importBooks(stream(ndjson), BookImportService.Format.NDJSON);
+
+        assertEquals(1, report.getInserted());
+        assertEquals(2, report.getFailed());
+        assertEquals(1, bookRepository.count());
+    }
+
+    @Test
+    void importedBooksReachTheIndexAndCacheWithoutARebuild() throws Exception {
+
+        Book existing = bookRepository.save(new Book(null, "Emma", "Jane Austen", "Classic", 5.0, 1));
+        catalogSearchService.bookSaved(existing);
+        bookCache.get(existing.getId());
+        String catalogETag = catalogVersions.catalogETag();
+
+        String csv = String.join("\n",
+                "id,title,author,genre,price,stock",
+                ",Quixotic Voyages,Miguel Cervantes,Classic,10.5,4",
+                existing.getId() + ",Emma Revisited,Jane Austen,Classic,6.5,9");
+
+        ImportReport report = bookImportService.importBooks(stream(csv), BookImportService.Format.CSV);
+
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getUpdated());
+
+        List<Book> inserted = catalogSearchService.searchByTitle("quixotic", 0, 10);
+        assertEquals(1, inserted.size());
+        assertEquals("Miguel Cervantes", inserted.get(0).getAuthor());
+        assertEquals(List.of(existing.getId()),
+                catalogSearchService.searchByTitle("revisited", 0, 10).stream().map(Book::getId).toList());
+        assertEquals(9, bookCache.get(existing.getId()).orElseThrow().getBook().getStock());
+        assertNotEquals(catalogETag, catalogVersions.catalogETag());
+    }
+
+    // Import throughput is measured by BookImportLoadTest
+    @Test
+    void largeImportGoesOutInBatches() throws Exception {
+
+        int rows = 1_000;
+        StringBuilder csv = new StringBuilder("title,author,genre,price,stock\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Book ").append(i).append(",Author ").append(i % 100).append(",Genre,9.99,5\n");
+        }
+
+        ImportReport report = bookImportService.importBooks(stream(csv.toString()), BookImportService.Format.CSV);
+
+        assertEquals(rows, report.getInserted());
+        assertEquals(rows, bookRepository.count());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
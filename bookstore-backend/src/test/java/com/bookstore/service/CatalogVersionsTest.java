@@ -0,0 +1,40 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CatalogVersionsTest {
+
+    @Test
+    void localWritesMoveOnlyTheTagsTheyTouch() {
+
+        CatalogVersions versions = new CatalogVersions(Duration.ofDays(1));
+        String book = versions.bookETag(1L);
+        String other = versions.bookETag(2L);
+        String catalog = versions.catalogETag();
+
+        versions.booksChanged(List.of(1L));
+
+        assertNotEquals(book, versions.bookETag(1L));
+        assertEquals(other, versions.bookETag(2L));
+        assertNotEquals(catalog, versions.catalogETag());
+    }
+
+    @Test
+    void tagsExpireWithTheirWindowWithoutAnyLocalWrite() throws Exception {
+
+        CatalogVersions versions = new CatalogVersions(Duration.ofMillis(20));
+        String book = versions.bookETag(1L);
+        String catalog = versions.catalogETag();
+
+        Thread.sleep(50);
+
+        assertNotEquals(book, versions.bookETag(1L));
+        assertNotEquals(catalog, versions.catalogETag());
+    }
+}
@@ -0,0 +1,142 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.bookstore.repository.BookStockRepository;
+
+class InventoryEngineTest {
+
+    private final InMemoryStock stock = new InMemoryStock();
+    private final InventoryEngine engine = new InventoryEngine(stock, 256, 4);
+
+    @AfterEach
+    void shutdown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void hotBookIsNeverOversold() throws Exception {
+
+        stock.rows.put(1L, 100);
+
+        List<CompletableFuture<ReservationResult>> results = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            results.add(engine.reserve(1L, 1));
+        }
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        long reserved = results.stream()
+                .filter(r -> r.join() == ReservationResult.RESERVED)
+                .count();
+
+        assertEquals(100, reserved);
+        assertEquals(0, stock.rows.get(1L));
+
+        // queued requests are folded into net updates instead of one per buyer
+        assertTrue(stock.updates.get() < results.size() / 10,
+                "expected batched updates but saw " + stock.updates.get());
+    }
+
+    @Test
+    void smallerRequestsFitAfterLargerOneIsRejected() throws Exception {
+
+        stock.rows.put(2L, 3);
+
+        CompletableFuture<ReservationResult> large = engine.reserve(2L, 5);
+        CompletableFuture<ReservationResult> small = engine.reserve(2L, 2);
+
+        assertEquals(ReservationResult.REJECTED, large.get(5, TimeUnit.SECONDS));
+        assertEquals(ReservationResult.RESERVED, small.get(5, TimeUnit.SECONDS));
+        assertEquals(1, stock.rows.get(2L));
+    }
+
+    @Test
+    void releaseGivesStockBack() throws Exception {
+
+        stock.rows.put(3L, 1);
+
+        assertEquals(ReservationResult.RESERVED, engine.reserve(3L, 1).get(5, TimeUnit.SECONDS));
+        engine.release(3L, 1).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, stock.rows.get(3L));
+    }
+
+    @Test
+    void releaseIsAppliedEvenWhenReservationsRunOutOfAttempts() throws Exception {
+
+        InventoryEngine single = new InventoryEngine(stock, 256, 1);
+        try {
+            stock.rows.put(4L, 10);
+            stock.rows.put(5L, 10);
+
+            // Hold the only drainer so the next two changes land in one batch
+            stock.gate = new CountDownLatch(1);
+            CompletableFuture<ReservationResult> blocker = single.reserve(5L, 1);
+            CompletableFuture<ReservationResult> reservation = single.reserve(4L, 3);
+            CompletableFuture<ReservationResult> release = single.release(4L, 1);
+
+            stock.refuseTakes = 4L;
+            stock.gate.countDown();
+
+            assertEquals(ReservationResult.RESERVED, blocker.get(5, TimeUnit.SECONDS));
+            assertEquals(ReservationResult.REJECTED, reservation.get(5, TimeUnit.SECONDS));
+            assertEquals(ReservationResult.RESERVED, release.get(5, TimeUnit.SECONDS));
+            assertEquals(11, stock.rows.get(4L));
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    // Stands in for the book table; each row update is atomic like a row lock
+    private static final class InMemoryStock extends BookStockRepository {
+
+        private final Map<Long, Integer> rows = new ConcurrentHashMap<>();
+        private final AtomicInteger updates = new AtomicInteger();
+        // Blocks updates until opened; takes from refuseTakes fail as if stock moved
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile Long refuseTakes;
+
+        @Override
+        public boolean decrementStock(Long bookId, int quantity) {
+
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            updates.incrementAndGet();
+            if (quantity > 0 && bookId.equals(refuseTakes)) {
+                return false;
+            }
+            boolean[] applied = new boolean[1];
+
+            rows.computeIfPresent(bookId, (id, current) -> {
+                if (current >= quantity) {
+                    applied[0] = true;
+                    return current - quantity;
+                }
+                return current;
+            });
+            return applied[0];
+        }
+
+        @Override
+        public Integer findStock(Long bookId) {
+            return rows.get(bookId);
+        }
+    }
+}
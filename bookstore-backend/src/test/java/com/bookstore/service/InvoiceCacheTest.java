@@ -0,0 +1,123 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InvoiceCacheTest {
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    void rendersOncePerOrderState() {
+
+        InvoiceCache cache = new InvoiceCache(1024 * 1024, 64 * 1024, "", 0, new SimpleMeterRegistry());
+        Order order = order();
+
+        assertArrayEquals(download(cache, order), download(cache, order));
+        assertEquals(1, renders.get());
+
+        order.setPaymentStatus(PaymentStatus.PAID);
+        download(cache, order);
+        assertEquals(2, renders.get());
+
+        cache.invalidate(order.getId());
+        download(cache, order);
+        assertEquals(3, renders.get());
+    }
+
+    @Test
+    void diskTierSurvivesRestart(@TempDir Path dir) {
+
+        Order order = order();
+        byte[] first = download(new InvoiceCache(1024 * 1024, 64 * 1024, dir.toString(),
+                1024 * 1024, new SimpleMeterRegistry()), order);
+
+        InvoiceCache restarted = new InvoiceCache(1024 * 1024, 64 * 1024, dir.toString(),
+                1024 * 1024, new SimpleMeterRegistry());
+
+        assertArrayEquals(first, download(restarted, order));
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void versionIsPlainTextOfTheOrderState() {
+        assertEquals("PLACED-PENDING-19.5", InvoiceCache.version(order()));
+    }
+
+    @Test
+    void diskTierDropsLeastRecentlyUsedFilesOverItsCap(@TempDir Path dir) throws IOException {
+
+        // Room for two five-byte invoices
+        InvoiceCache cache = new InvoiceCache(1024 * 1024, 64 * 1024, dir.toString(), 12,
+                new SimpleMeterRegistry());
+
+        for (long id = 1; id <= 3; id++) {
+            Order order = order();
+            order.setId(id);
+            download(cache, order);
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() <= 2);
+        }
+    }
+
+    @Test
+    void invoicesLargerThanTheEntryLimitStreamButAreNotKept() {
+
+        InvoiceCache cache = new InvoiceCache(1024 * 1024, 4, "", 0, new SimpleMeterRegistry());
+        Order order = order();
+
+        assertEquals("pdf-1", new String(download(cache, order)));
+        assertEquals("pdf-2", new String(download(cache, order)));
+    }
+
+    @Test
+    void invoicesLargerThanTheEntryLimitAreStillWrittenToDisk(@TempDir Path dir) {
+
+        InvoiceCache cache = new InvoiceCache(1024 * 1024, 4, dir.toString(), 1024 * 1024,
+                new SimpleMeterRegistry());
+        Order order = order();
+
+        assertEquals("pdf-1", new String(download(cache, order)));
+        assertEquals("pdf-1", new String(download(cache, order)));
+        assertEquals(1, renders.get());
+    }
+
+    private byte[] download(InvoiceCache cache, Order order) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            cache.write(order, out, stream -> stream.write(("pdf-" + renders.incrementAndGet()).getBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Order order() {
+        Order order = new Order();
+        order.setId(42L);
+        order.setTotalAmount(19.5);
+        order.setOrderStatus(OrderStatus.PLACED);
+        order.setPaymentStatus(PaymentStatus.PENDING);
+        return order;
+    }
+}
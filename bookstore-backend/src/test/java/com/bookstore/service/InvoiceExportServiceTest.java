@@ -0,0 +1,83 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+
+@SpringBootTest(properties = "invoice.export.chunk-size=2")
+class InvoiceExportServiceTest {
+
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void exportsEveryOrderInIdOrderAcrossChunks() throws Exception {
+
+        Book book = bookRepository.save(new Book(null, "Emma", "Jane Austen", "Classic", 5.0, 100));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Long id = orderService.placeOrder(request(book.getId()), "buyer@test.com").getId();
+            expected.add("invoice_" + id + ".pdf");
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LocalDate today = LocalDate.now();
+        invoiceExportService.exportZip(today, today, out);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                assertTrue(new String(zip.readAllBytes(), 0, 4).startsWith("%PDF"));
+            }
+        }
+
+        assertEquals(expected, names);
+    }
+
+    private static OrderRequest request(Long bookId) {
+
+        OrderItemRequest item = new OrderItemRequest();
+        item.setBookId(bookId);
+        item.setQuantity(1);
+
+        OrderRequest request = new OrderRequest();
+        request.setItems(new ArrayList<>(List.of(item)));
+        return request;
+    }
+}
@@ -0,0 +1,179 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.dto.OrderResponse;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.IdempotencyRecord;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.IdempotencyRecordRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.sql.SqlStatementCounter;
+
+@SpringBootTest
+class OrderIdempotencyTest {
+
+    @Autowired
+    private OrderIdempotency orderIdempotency;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRecordRepository.deleteAll();
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 10));
+    }
+
+    @Test
+    void retryReturnsTheFirstOrderFromMemory() {
+
+        OrderResponse first = orderIdempotency.placeOrder(request(2), "buyer@test.com", "key-1");
+
+        OrderResponse retry;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            retry = orderIdempotency.placeOrder(request(2), "buyer@test.com", "key-1");
+            assertEquals(0, scope.statements());
+        }
+
+        assertEquals(first.getOrderId(), retry.getOrderId());
+        assertEquals(1, orderRepository.count());
+        assertEquals(8, bookRepository.findById(book.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirst() throws Exception {
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(pool.submit(() -> {
+                start.await();
+                return orderIdempotency.placeOrder(request(1), "buyer@test.com", "key-2");
+            }));
+        }
+        start.countDown();
+
+        Long orderId = responses.get(0).get(30, TimeUnit.SECONDS).getOrderId();
+        for (Future<OrderResponse> response : responses) {
+            assertEquals(orderId, response.get(30, TimeUnit.SECONDS).getOrderId());
+        }
+        pool.shutdown();
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(9, bookRepository.findById(book.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void keysSurviveInTheTableAndCannotBeReusedForAnotherOrder() {
+
+        OrderResponse first = orderIdempotency.placeOrder(request(1), "buyer@test.com", "key-3");
+
+        // a second instance has nothing in memory
+        OrderIdempotency otherInstance = new OrderIdempotency(orderService, idempotencyRecordRepository,
+                transactionTemplate, bookCache, 100, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofSeconds(5));
+
+        assertEquals(first.getOrderId(),
+                otherInstance.placeOrder(request(1), "buyer@test.com", "key-3").getOrderId());
+        assertThrows(IllegalArgumentException.class,
+                () -> otherInstance.placeOrder(request(3), "buyer@test.com", "key-3"));
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void newKeyIsClaimedWithoutALookup() {
+
+        long unkeyed;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            orderService.placeOrder(request(1), "buyer@test.com");
+            unkeyed = scope.statements();
+        }
+
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            orderIdempotency.placeOrder(request(1), "buyer@test.com", "key-5");
+            // the claim insert and setting its order id, nothing else
+            assertEquals(unkeyed + 2, scope.statements());
+        }
+    }
+
+    @Test
+    void keyPastItsRetentionIsClaimedAgain() {
+
+        IdempotencyRecord expired = new IdempotencyRecord();
+        expired.setUserEmail("buyer@test.com");
+        expired.setIdempotencyKey("key-6");
+        expired.setRequestHash("stale");
+        expired.setOrderId(-1L);
+        expired.setCreatedAt(LocalDateTime.now().minusDays(2));
+        idempotencyRecordRepository.save(expired);
+
+        OrderResponse placed = orderIdempotency.placeOrder(request(1), "buyer@test.com", "key-6");
+
+        assertNotEquals(-1L, placed.getOrderId());
+        assertEquals(1, orderRepository.count());
+        assertEquals(1, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void failedOrderDoesNotKeepItsKey() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderIdempotency.placeOrder(request(50), "buyer@test.com", "key-4"));
+        assertEquals(0, idempotencyRecordRepository.count());
+
+        orderIdempotency.placeOrder(request(5), "buyer@test.com", "key-4");
+        assertEquals(1, orderRepository.count());
+    }
+
+    private OrderRequest request(int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setBookId(book.getId());
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+}
@@ -0,0 +1,138 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.dto.OrderIntakeStatus;
+import com.bookstore.dto.OrderIntakeStatus.State;
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Order;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+class OrderIntakeTest {
+
+    @Autowired
+    private OrderIntake orderIntake;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void queuedOrdersAreAdmittedInArrivalOrderWhileStockLasts() throws Exception {
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 10));
+        Book other = bookRepository.save(new Book(null, "Emma", "Jane Austen", "Classic", 4.0, 100));
+
+        List<OrderIntakeStatus> tickets = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            OrderRequest request = request(Map.of(book.getId(), 1, other.getId(), 2));
+            tickets.add(orderIntake.submit(request, "buyer" + i + "@test.com"));
+        }
+
+        int placed = 0;
+        for (int i = 0; i < tickets.size(); i++) {
+            OrderIntakeStatus status = orderIntake.awaitStatus(tickets.get(i).getTicket(),
+                    "buyer" + i + "@test.com", Duration.ofSeconds(10)).get(15, TimeUnit.SECONDS);
+            if (status.getStatus() == State.PLACED) {
+                placed++;
+                Order order = orderRepository.findById(status.getOrderId()).orElseThrow();
+                assertEquals("buyer" + i + "@test.com", order.getUserEmail());
+                assertEquals(18.0, order.getTotalAmount());
+            } else {
+                assertEquals(State.REJECTED, status.getStatus());
+                assertEquals("Not enough stock for book: Dune", status.getMessage());
+            }
+        }
+
+        assertEquals(10, placed);
+        assertEquals(10, orderRepository.count());
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getStock());
+        assertEquals(80, bookRepository.findById(other.getId()).orElseThrow().getStock());
+
+        // Counted once per rejected order, however often its batch was retried
+        assertEquals(20.0, meterRegistry.get("order.stock.rejected")
+                .tag("book", String.valueOf(book.getId())).counter().count());
+    }
+
+    @Test
+    void retriesWithTheSameIdempotencyKeyGetTheFirstTicket() throws Exception {
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 10));
+
+        OrderIntakeStatus first = orderIntake.submit(request(Map.of(book.getId(), 1)), "buyer@test.com", "key-1");
+        OrderIntakeStatus retry = orderIntake.submit(request(Map.of(book.getId(), 1)), "buyer@test.com", "key-1");
+        assertEquals(first.getTicket(), retry.getTicket());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderIntake.submit(request(Map.of(book.getId(), 2)), "buyer@test.com", "key-1"));
+
+        // keys are per user
+        OrderIntakeStatus other = orderIntake.submit(request(Map.of(book.getId(), 1)), "other@test.com", "key-1");
+        assertNotEquals(first.getTicket(), other.getTicket());
+
+        assertEquals(State.PLACED, orderIntake.awaitStatus(first.getTicket(), "buyer@test.com",
+                Duration.ofSeconds(10)).get(15, TimeUnit.SECONDS).getStatus());
+        assertEquals(State.PLACED, orderIntake.awaitStatus(other.getTicket(), "other@test.com",
+                Duration.ofSeconds(10)).get(15, TimeUnit.SECONDS).getStatus());
+        assertEquals(State.PLACED, orderIntake.submit(request(Map.of(book.getId(), 1)), "buyer@test.com", "key-1")
+                .getStatus());
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    void unknownBooksAndOtherUsersTicketsAreRefused() {
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> orderIntake.submit(request(Map.of(Long.MAX_VALUE, 1)), "buyer@test.com"));
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 10));
+        OrderIntakeStatus queued = orderIntake.submit(request(Map.of(book.getId(), 1)), "buyer@test.com");
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> orderIntake.status(queued.getTicket(), "someone@test.com"));
+    }
+
+    private static OrderRequest request(Map<Long, Integer> lines) {
+
+        OrderRequest request = new OrderRequest();
+        request.setItems(new ArrayList<>());
+        lines.forEach((bookId, quantity) -> {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setBookId(bookId);
+            item.setQuantity(quantity);
+            request.getItems().add(item);
+        });
+        return request;
+    }
+}
@@ -0,0 +1,212 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.dto.OrderSummary;
+import com.bookstore.entity.Book;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 10));
+
+        int buyers = 40;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < buyers; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    orderService.placeOrder(request(book.getId(), 1), "buyer@test.com");
+                    placed.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(10, placed.get());
+        assertEquals(buyers - 10, rejected.get());
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getStock());
+        assertEquals(10, orderRepository.count());
+    }
+
+    @Test
+    void oppositeOrderCartsDoNotDeadlock() throws Exception {
+
+        Book first = bookRepository.save(new Book(null, "Emma", "Jane Austen", "Classic", 5.0, 1_000));
+        Book second = bookRepository.save(new Book(null, "Ulysses", "James Joyce", "Classic", 8.0, 1_000));
+
+        int buyers = 60;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < buyers; i++) {
+            // Half the carts list the books one way round, half the other
+            Long head = i % 2 == 0 ? first.getId() : second.getId();
+            Long tail = i % 2 == 0 ? second.getId() : first.getId();
+            futures.add(pool.submit(() -> {
+                start.await();
+                OrderRequest request = request(head, 1);
+                request.getItems().addAll(request(tail, 1).getItems());
+                orderService.placeOrder(request, "buyer@test.com");
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(buyers, orderRepository.count());
+        assertEquals(1_000 - buyers, bookRepository.findById(first.getId()).orElseThrow().getStock());
+        assertEquals(1_000 - buyers, bookRepository.findById(second.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void failedLineRollsBackWholeOrder() {
+
+        Book plenty = bookRepository.save(new Book(null, "Emma", "Jane Austen", "Classic", 5.0, 10));
+        Book scarce = bookRepository.save(new Book(null, "Ulysses", "James Joyce", "Classic", 8.0, 1));
+
+        OrderRequest request = request(plenty.getId(), 3);
+        request.getItems().addAll(request(scarce.getId(), 2).getItems());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.placeOrder(request, "buyer@test.com"));
+
+        assertEquals(10, bookRepository.findById(plenty.getId()).orElseThrow().getStock());
+        assertEquals(1, bookRepository.findById(scarce.getId()).orElseThrow().getStock());
+        assertEquals(0, orderRepository.count());
+
+        assertEquals(1.0, meterRegistry.get("order.stock.rejected")
+                .tag("book", String.valueOf(scarce.getId())).counter().count());
+    }
+
+    @Test
+    void largeCartLoadsBooksWithOneQuery() {
+
+        int lines = 20;
+        OrderRequest request = new OrderRequest();
+        request.setItems(new ArrayList<>());
+
+        for (int i = 0; i < lines; i++) {
+            Book book = bookRepository.save(new Book(null, "Book " + i, "Author", "Genre", 1.0, 5));
+            request.getItems().addAll(request(book.getId(), 1).getItems());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        orderService.placeOrder(request, "buyer@test.com");
+
+        // one book select, one order insert and one insert per line;
+        // the stock decrements go out as a single JDBC batch outside Hibernate
+        assertEquals(1 + 1 + lines, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void myOrdersQueryCountDoesNotGrowWithOrders() {
+
+        Book first = bookRepository.save(new Book(null, "Emma", "Jane Austen", "Classic", 5.0, 1_000));
+        Book second = bookRepository.save(new Book(null, "Ulysses", "James Joyce", "Classic", 8.0, 1_000));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long[] statements = new long[2];
+        int[] orderCounts = {3, 40};
+
+        for (int run = 0; run < orderCounts.length; run++) {
+
+            String user = "reader" + run + "@test.com";
+            for (int i = 0; i < orderCounts[run]; i++) {
+                OrderRequest request = request(first.getId(), 1);
+                request.getItems().addAll(request(second.getId(), 2).getItems());
+                orderService.placeOrder(request, user);
+            }
+
+            statistics.clear();
+            Page<OrderSummary> page = orderService.getOrdersForUser(user, 0, 20);
+            statements[run] = statistics.getPrepareStatementCount();
+
+            assertEquals(orderCounts[run], page.getTotalElements());
+            assertEquals(2, page.getContent().get(0).getItems().size());
+        }
+
+        assertEquals(statements[0] + 1, statements[1],
+                "only the count query may be added once there is more than one page");
+    }
+
+    private static OrderRequest request(Long bookId, int quantity) {
+
+        OrderItemRequest item = new OrderItemRequest();
+        item.setBookId(bookId);
+        item.setQuantity(quantity);
+
+        OrderRequest request = new OrderRequest();
+        request.setItems(new ArrayList<>(List.of(item)));
+        return request;
+    }
+}
@@ -0,0 +1,158 @@
+package com.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.bookstore.analytics.SalesAnalytics;
+import com.bookstore.dto.OrderItemRequest;
+import com.bookstore.dto.OrderRequest;
+import com.bookstore.dto.OrderTransition;
+import com.bookstore.dto.TransitionResult;
+import com.bookstore.dto.TransitionResult.Outcome;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderStatus;
+import com.bookstore.entity.PaymentStatus;
+import com.bookstore.exception.ResourceNotFoundException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+
+@SpringBootTest
+class OrderTransitionServiceTest {
+
+    @Autowired
+    private OrderTransitionService orderTransitionService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void validTransitionsAreAppliedAndInvalidOnesReported() {
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 50));
+        Order first = orderService.placeOrder(request(book.getId()), "a@test.com");
+        Order second = orderService.placeOrder(request(book.getId()), "b@test.com");
+        Order cancelled = orderService.placeOrder(request(book.getId()), "c@test.com");
+        cancelled.setOrderStatus(OrderStatus.CANCELLED);
+        orderRepository.save(cancelled);
+
+        List<TransitionResult> results = orderTransitionService.apply(List.of(
+                transition(first.getId(), OrderStatus.SHIPPED, PaymentStatus.PAID),
+                transition(second.getId(), OrderStatus.SHIPPED, null),
+                transition(cancelled.getId(), OrderStatus.SHIPPED, null),
+                transition(second.getId(), null, PaymentStatus.PAID),
+                transition(first.getId() + 1000, OrderStatus.SHIPPED, null),
+                transition(second.getId(), OrderStatus.PLACED, null)));
+
+        assertEquals(Outcome.APPLIED, results.get(0).getOutcome());
+        assertEquals(Outcome.APPLIED, results.get(1).getOutcome());
+        assertEquals(Outcome.REJECTED, results.get(2).getOutcome());
+        assertEquals("Cannot move order from CANCELLED to SHIPPED", results.get(2).getMessage());
+        assertEquals(Outcome.REJECTED, results.get(3).getOutcome());
+        assertEquals(Outcome.NOT_FOUND, results.get(4).getOutcome());
+        assertEquals(Outcome.REJECTED, results.get(5).getOutcome());
+
+        Order shipped = orderRepository.findById(first.getId()).orElseThrow();
+        assertEquals(OrderStatus.SHIPPED, shipped.getOrderStatus());
+        assertEquals(PaymentStatus.PAID, shipped.getPaymentStatus());
+        assertEquals(OrderStatus.SHIPPED, orderRepository.findById(second.getId()).orElseThrow().getOrderStatus());
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(cancelled.getId()).orElseThrow().getOrderStatus());
+
+        // Asking for the current state again changes nothing
+        assertEquals(Outcome.UNCHANGED, orderTransitionService.apply(List.of(
+                transition(first.getId(), OrderStatus.SHIPPED, PaymentStatus.PAID))).get(0).getOutcome());
+    }
+
+    @Test
+    void concurrentSingleUpdatesReportOneTransition() throws Exception {
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 50));
+        Order order = orderService.placeOrder(request(book.getId()), "a@test.com");
+        Map<OrderStatus, Long> before = salesAnalytics.statusCounts().getOrderStatus();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Order>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> orderTransitionService.setOrderStatus(order.getId(), OrderStatus.SHIPPED)));
+            }
+            for (Future<Order> result : results) {
+                assertEquals(OrderStatus.SHIPPED, result.get(10, TimeUnit.SECONDS).getOrderStatus());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<OrderStatus, Long> after = salesAnalytics.statusCounts().getOrderStatus();
+        assertEquals(before.get(OrderStatus.PLACED) - 1, after.get(OrderStatus.PLACED));
+        assertEquals(before.get(OrderStatus.SHIPPED) + 1, after.get(OrderStatus.SHIPPED));
+        assertEquals(OrderStatus.SHIPPED, orderRepository.findById(order.getId()).orElseThrow().getOrderStatus());
+    }
+
+    @Test
+    void customersCancelOnlyTheirOwnUnshippedOrders() {
+
+        Book book = bookRepository.save(new Book(null, "Dune", "Frank Herbert", "Sci-Fi", 10.0, 50));
+        Order order = orderService.placeOrder(request(book.getId()), "a@test.com");
+
+        assertThrows(RuntimeException.class, () -> orderTransitionService.cancel(order.getId(), "b@test.com"));
+        assertEquals(OrderStatus.CANCELLED, orderTransitionService.cancel(order.getId(), "a@test.com").getOrderStatus());
+        assertThrows(ResourceNotFoundException.class,
+                () -> orderTransitionService.cancel(order.getId() + 1000, "a@test.com"));
+
+        Order shipped = orderService.placeOrder(request(book.getId()), "a@test.com");
+        orderTransitionService.setOrderStatus(shipped.getId(), OrderStatus.SHIPPED);
+        assertThrows(RuntimeException.class, () -> orderTransitionService.cancel(shipped.getId(), "a@test.com"));
+    }
+
+    @Test
+    void emptyBatchIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> orderTransitionService.apply(List.of()));
+    }
+
+    private static OrderTransition transition(Long orderId, OrderStatus orderStatus, PaymentStatus paymentStatus) {
+        OrderTransition transition = new OrderTransition();
+        transition.setOrderId(orderId);
+        transition.setOrderStatus(orderStatus);
+        transition.setPaymentStatus(paymentStatus);
+        return transition;
+    }
+
+    private static OrderRequest request(Long bookId) {
+
+        OrderItemRequest item = new OrderItemRequest();
+        item.setBookId(bookId);
+        item.setQuantity(1);
+
+        OrderRequest request = new OrderRequest();
+        request.setItems(new ArrayList<>(List.of(item)));
+        return request;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bookstore.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import net.ttddyy.dsproxy.ExecutionInfo;
+
+class SqlStatementFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatementCounter counter = new SqlStatementCounter(Duration.ofSeconds(1), 0, meterRegistry);
+    private final SqlStatementFilter filter = new SqlStatementFilter(counter, meterRegistry, 20, List.of());
+
+    @Test
+    void statementsOfAFailedRequestAreStillRecorded() {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/orders/1/cancel");
+        FilterChain failing = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/orders/{id}/cancel");
+            counter.afterQuery(new ExecutionInfo(), List.of());
+            counter.afterQuery(new ExecutionInfo(), List.of());
+            throw new IllegalStateException("rolled back");
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request, new MockHttpServletResponse(), failing));
+
+        assertEquals(2L, request.getAttribute(SqlStatementFilter.STATEMENTS_ATTRIBUTE));
+        assertEquals(2.0, meterRegistry.get("sql.statements")
+                .tags("method", "PUT", "uri", "/orders/{id}/cancel").summary().totalAmount());
+    }
+}
@@ -0,0 +1,29 @@
+package com.bookstore.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * MockMvc matchers on the statement count {@link SqlStatementFilter} leaves
+ * on each request, e.g.
+ * {@code mockMvc.perform(get("/orders/my")).andExpect(SqlStatements.count(2))}.
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    public static ResultMatcher count(long expected) {
+        return result -> assertEquals(expected, statements(result.getRequest().getAttribute(
+                SqlStatementFilter.STATEMENTS_ATTRIBUTE)), "SQL statements for " + result.getRequest().getMethod()
+                + " " + result.getRequest().getRequestURI());
+    }
+
+    private static long statements(Object attribute) {
+        if (attribute == null) {
+            throw new AssertionError("No statement count on the request; is SqlStatementFilter registered?");
+        }
+        return (Long) attribute;
+    }
+}